@@ -7,6 +7,7 @@ import androidx.compose.foundation.layout.PaddingValues
 import androidx.compose.foundation.layout.fillMaxWidth
 import androidx.compose.foundation.layout.wrapContentSize
 import androidx.compose.foundation.lazy.LazyColumn
+import androidx.compose.foundation.lazy.LazyListLayoutInfo
 import androidx.compose.foundation.lazy.items
 import androidx.compose.foundation.lazy.rememberLazyListState
 import androidx.compose.material.DismissValue
@@ -18,16 +19,19 @@ import androidx.compose.material.pullrefresh.pullRefresh
 import androidx.compose.material.pullrefresh.rememberPullRefreshState
 import androidx.compose.material.rememberDismissState
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.CompositionLocalProvider
 import androidx.compose.runtime.DisposableEffect
 import androidx.compose.runtime.LaunchedEffect
-import androidx.compose.runtime.derivedStateOf
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableFloatStateOf
 import androidx.compose.runtime.mutableStateListOf
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
 import androidx.compose.runtime.rememberCoroutineScope
+import androidx.compose.runtime.saveable.Saver
+import androidx.compose.runtime.saveable.rememberSaveable
 import androidx.compose.runtime.setValue
+import androidx.compose.runtime.snapshotFlow
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.platform.LocalContext
@@ -38,6 +42,8 @@ import androidx.compose.ui.unit.sp
 import androidx.lifecycle.Lifecycle
 import androidx.lifecycle.LifecycleEventObserver
 import androidx.lifecycle.compose.LocalLifecycleOwner
+import coil3.SingletonImageLoader
+import coil3.request.ImageRequest
 import com.braze.Braze
 import com.braze.coroutine.BrazeCoroutineScope
 import com.braze.enums.CardType
@@ -49,15 +55,21 @@ import com.braze.jetpackcompose.LocalContentCardStyling
 import com.braze.jetpackcompose.contentcards.cards.ContentCard
 import com.braze.jetpackcompose.contentcards.styling.ContentCardListStyling
 import com.braze.jetpackcompose.contentcards.styling.ContentCardStyling
+import com.braze.jetpackcompose.contentcards.styling.LocalResolvedContentCardStyleCache
+import com.braze.jetpackcompose.contentcards.styling.rememberResolvedContentCardStyleCache
 import com.braze.models.cards.Card
 import com.braze.support.BrazeLogger.Priority.V
 import com.braze.support.BrazeLogger.Priority.W
 import com.braze.support.BrazeLogger.brazelog
 import com.braze.ui.contentcards.BrazeContentCardUtils
+import com.braze.ui.contentcards.ContentCardImagePrefetcher
+import com.braze.ui.contentcards.ContentCardVisibilityTracker
+import com.braze.ui.contentcards.PagedContentCardList
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.distinctUntilChanged
 import kotlinx.coroutines.launch
 
 private sealed interface CardListMutation {
@@ -72,6 +84,8 @@ private sealed interface CardListMutation {
     data class InitializeFromCache(
         val cachedCards: List<Card>,
     ) : CardListMutation
+
+    data object LoadNextPage : CardListMutation
 }
 
 /**
@@ -90,6 +104,9 @@ private sealed interface CardListMutation {
  * @param style The styling for the list of content cards.
  * @param cardStyle The styling for the individual content cards.
  * @param enablePullToRefresh If true, the user can pull down to refresh the list of content cards.
+ * @param pageSize If non-null, cards are sorted incrementally across updates and only rendered a page of
+ *                 [pageSize] cards at a time, with the next page loaded as the user scrolls towards the end.
+ *                 Intended for feeds with a very large number of cards. See [PagedContentCardList].
  */
 @Suppress("LongMethod", "ComplexMethod", "LongParameterList", "VariableNaming", "MagicNumber", "NestedBlockDepth")
 @OptIn(ExperimentalMaterialApi::class)
@@ -105,12 +122,14 @@ fun ContentCardsList(
     style: ContentCardListStyling = LocalContentCardListStyling.current,
     cardStyle: ContentCardStyling = LocalContentCardStyling.current,
     enablePullToRefresh: Boolean = true,
+    pageSize: Int? = null,
 ) {
     val context = LocalContext.current
     var contentCardsUpdatedSubscriber: IEventSubscriber<ContentCardsUpdatedEvent>? = null
     var sdkDataWipeEventSubscriber: IEventSubscriber<SdkDataWipeEvent>? = null
 
     var myCards by remember { mutableStateOf<List<Card>>(emptyList()) }
+    val pagedCards = remember(pageSize) { pageSize?.let { PagedContentCardList(pageSize = it) } }
 
     val controlCardInference =
         remember {
@@ -144,11 +163,21 @@ fun ContentCardsList(
 
     val refreshState = rememberPullRefreshState(isRefreshing, ::refresh)
 
-    val impressedCards =
-        remember {
-            mutableStateListOf<String>()
+    // Saved so that a recreated list doesn't log the impressions of the same cards again
+    val visibilityTracker =
+        rememberSaveable(
+            saver =
+                Saver(
+                    save = { it.saveImpressions() },
+                    restore = { ContentCardVisibilityTracker().apply { restoreImpressions(it) } },
+                ),
+        ) {
+            ContentCardVisibilityTracker()
         }
 
+    // Card styles are resolved once per card type and shared by every card of the list
+    val resolvedStyleCache = rememberResolvedContentCardStyleCache(cardStyle)
+
     fun networkUnavailable() {
         brazelog(tag) { "Network is unavailable." }
         networkUnavailableJob = null
@@ -168,7 +197,7 @@ fun ContentCardsList(
             if (!card.isIndicatorHighlighted) {
                 DisposableEffect(key1 = card.id) {
                     onDispose {
-                        if (impressedCards.contains(card.id)) {
+                        if (visibilityTracker.isImpressed(card.id)) {
                             if (!card.isIndicatorHighlighted) {
                                 card.isIndicatorHighlighted = true
                             }
@@ -179,7 +208,9 @@ fun ContentCardsList(
                     }
                 }
             }
-            ContentCard(card = card, clickHandler = onCardClicked, style = cardStyle)
+            CompositionLocalProvider(LocalResolvedContentCardStyleCache provides resolvedStyleCache) {
+                ContentCard(card = card, clickHandler = onCardClicked, style = cardStyle)
+            }
         }
     }
 
@@ -190,8 +221,7 @@ fun ContentCardsList(
         }
     }
 
-    fun applyCardReplacement(newCards: List<Card>) {
-        val processedCards = cardUpdateHandler?.invoke(newCards) ?: BrazeContentCardUtils.defaultCardHandling(newCards)
+    fun applyProcessedCards(processedCards: List<Card>) {
         val cardsToAdd = mutableListOf<Card>()
         val controlCardPairsToAdd = mutableSetOf<Pair<String, Card>>()
         var lastCardId = ""
@@ -218,6 +248,16 @@ fun ContentCardsList(
         myCards = cardsToAdd
     }
 
+    fun applyCardReplacement(newCards: List<Card>) {
+        val processedCards =
+            when {
+                pagedCards == null -> cardUpdateHandler?.invoke(newCards) ?: BrazeContentCardUtils.defaultCardHandling(newCards)
+                cardUpdateHandler != null -> pagedCards.update(cardUpdateHandler.invoke(newCards), isAlreadySorted = true)
+                else -> pagedCards.update(newCards)
+            }
+        applyProcessedCards(processedCards)
+    }
+
     fun replaceCards(newCards: List<Card>) {
         enqueueCardListMutation(CardListMutation.ReplaceCards(newCards))
     }
@@ -249,7 +289,11 @@ fun ContentCardsList(
                     requestStaleRefreshIfNeeded()
                 }
             }
+            is CardListMutation.LoadNextPage -> {
+                pagedCards?.let { applyProcessedCards(it.window) }
+            }
             is CardListMutation.DismissCard -> {
+                pagedCards?.remove(mutation.card)
                 myCards = myCards.filterNot { it.id == mutation.card.id }
                 brazelog(tag) { "Removing card ${mutation.card.id}. Total size is now ${myCards.size}" }
                 mutation.card.isDismissed = true
@@ -263,22 +307,22 @@ fun ContentCardsList(
         replaceCards(event.allCards)
     }
 
-    fun logCardImpression(card: Card) {
-        if (impressedCards.contains(card.id)) {
-            brazelog(tag) { "Card ${card.id} already logged. Skipping." }
-        } else {
+    /**
+     * Logs impressions for cards returned by [visibilityTracker], which already marked them as impressed.
+     */
+    fun logCardImpressions(newlyImpressedCards: List<Card>) {
+        newlyImpressedCards.forEach { card ->
             brazelog(tag) { "Logging impression for card ${card.id}" }
-            impressedCards.add(card.id)
             card.logImpression()
-        }
-        controlCardInference.filter { it.first == card.id }.forEach {
-            val controlCard = it.second
-            if (impressedCards.contains(controlCard.id)) {
-                brazelog(tag) { "Control Card ${controlCard.id} (via ${card.id}) already logged. Skipping." }
-            } else {
-                brazelog(tag) { "Logging impression for control card ${controlCard.id} (via ${card.id})" }
-                impressedCards.add(controlCard.id)
-                controlCard.logImpression()
+            card.viewed = true
+            controlCardInference.filter { it.first == card.id }.forEach {
+                val controlCard = it.second
+                if (visibilityTracker.markImpressed(controlCard.id)) {
+                    brazelog(tag) { "Logging impression for control card ${controlCard.id} (via ${card.id})" }
+                    controlCard.logImpression()
+                } else {
+                    brazelog(tag) { "Control Card ${controlCard.id} (via ${card.id}) already logged. Skipping." }
+                }
             }
         }
     }
@@ -377,34 +421,67 @@ fun ContentCardsList(
 
     val listState = rememberLazyListState()
 
-    val fullyVisibleIndices: List<Int> by remember {
-        derivedStateOf {
-            val layoutInfo = listState.layoutInfo
-            val visibleItemsInfo = layoutInfo.visibleItemsInfo
-            if (visibleItemsInfo.isEmpty()) {
-                emptyList()
-            } else {
-                val fullyVisibleItemsInfo = visibleItemsInfo.toMutableList()
-
-                // If the size is exactly one, mark it as visible. Cards bigger than the viewport will never be
-                // "fully" visible otherwise.
-                if (fullyVisibleItemsInfo.size > 1) {
-                    val lastItem = fullyVisibleItemsInfo.last()
-                    val viewportHeight = layoutInfo.viewportEndOffset + layoutInfo.viewportStartOffset
-
-                    if (lastItem.offset + lastItem.size > viewportHeight) {
-                        fullyVisibleItemsInfo.removeAt(fullyVisibleItemsInfo.lastIndex)
-                    }
-
-                    val firstItemIfLeft = fullyVisibleItemsInfo.firstOrNull()
-                    if (firstItemIfLeft != null && firstItemIfLeft.offset < layoutInfo.viewportStartOffset) {
-                        fullyVisibleItemsInfo.removeAt(0)
+    if (pagedCards != null) {
+        LaunchedEffect(listState, pagedCards) {
+            snapshotFlow { listState.layoutInfo.visibleItemsInfo.lastOrNull()?.index ?: -1 }
+                .collect { lastVisibleIndex ->
+                    if (pagedCards.loadNextPageIfNeeded(lastVisibleIndex).isNotEmpty()) {
+                        enqueueCardListMutation(CardListMutation.LoadNextPage)
                     }
                 }
+        }
+    }
 
-                fullyVisibleItemsInfo.map { it.index }
+    // Loads the images of the cards about to scroll into view into the cache of the Coil image loader
+    // that ContentCard renders them with
+    val imagePrefetcher =
+        remember(context) {
+            ContentCardImagePrefetcher { imageUrl, widthPx, heightPx ->
+                val request =
+                    ImageRequest
+                        .Builder(context)
+                        .data(imageUrl)
+                        .size(widthPx, heightPx)
+                        .build()
+                SingletonImageLoader.get(context).enqueue(request).job
             }
         }
+    DisposableEffect(imagePrefetcher) {
+        onDispose {
+            imagePrefetcher.cancelAll()
+        }
+    }
+    LaunchedEffect(listState, imagePrefetcher) {
+        var lastScrollPositionPx: Int? = null
+        snapshotFlow { myCards to listState.layoutInfo }
+            .collect { (cards, layoutInfo) ->
+                val visibleItemsInfo = layoutInfo.visibleItemsInfo
+                if (visibleItemsInfo.isEmpty()) {
+                    return@collect
+                }
+                // Lazy lists only know the size of visible items, so the scroll position is
+                // approximated with their average size
+                val averageItemSize = visibleItemsInfo.sumOf { it.size } / visibleItemsInfo.size
+                val scrollPositionPx = visibleItemsInfo.first().index * averageItemSize - visibleItemsInfo.first().offset
+                val scrollDeltaPx = scrollPositionPx - (lastScrollPositionPx ?: scrollPositionPx)
+                lastScrollPositionPx = scrollPositionPx
+                imagePrefetcher.onScrolled(
+                    cards,
+                    visibleItemsInfo.first().index,
+                    visibleItemsInfo.last().index,
+                    scrollDeltaPx,
+                    layoutInfo.viewportSize.width,
+                )
+            }
+    }
+
+    LaunchedEffect(listState, visibilityTracker) {
+        snapshotFlow { myCards to getFullyVisibleRange(listState.layoutInfo) }
+            .distinctUntilChanged()
+            .collect { (cards, fullyVisibleRange) ->
+                visibilityTracker.setCards(cards)
+                logCardImpressions(visibilityTracker.setFullyVisibleRange(fullyVisibleRange))
+            }
     }
 
     val modifier =
@@ -430,17 +507,6 @@ fun ContentCardsList(
         ) {
             if (myCards.isNotEmpty()) {
                 items(items = myCards, key = { card -> card.id }) { card ->
-                    val isVisible by remember(card.id) {
-                        derivedStateOf {
-                            fullyVisibleIndices.contains(myCards.indexOf(card))
-                        }
-                    }
-
-                    if (isVisible && !impressedCards.contains(card.id)) {
-                        logCardImpression(card)
-                        card.viewed = true
-                    }
-
                     if (card.isDismissibleByUser) {
                         val currentFraction = remember { mutableFloatStateOf(0f) }
                         val dismissThreshold = 0.50f
@@ -519,3 +585,29 @@ fun ContentCardsList(
         }
     }
 }
+
+/**
+ * Returns the range of item indices that are fully inside the viewport of the list.
+ */
+private fun getFullyVisibleRange(layoutInfo: LazyListLayoutInfo): IntRange {
+    val visibleItemsInfo = layoutInfo.visibleItemsInfo
+    if (visibleItemsInfo.isEmpty()) {
+        return IntRange.EMPTY
+    }
+    var first = visibleItemsInfo.first().index
+    var last = visibleItemsInfo.last().index
+
+    // If the size is exactly one, mark it as visible. Cards bigger than the viewport will never be
+    // "fully" visible otherwise.
+    if (visibleItemsInfo.size > 1) {
+        val lastItem = visibleItemsInfo.last()
+        val viewportHeight = layoutInfo.viewportEndOffset + layoutInfo.viewportStartOffset
+        if (lastItem.offset + lastItem.size > viewportHeight) {
+            last--
+        }
+        if (visibleItemsInfo.first().offset < layoutInfo.viewportStartOffset) {
+            first++
+        }
+    }
+    return first..last
+}
@@ -42,6 +42,7 @@ import com.braze.configuration.BrazeConfigurationProvider
 import com.braze.enums.CardType
 import com.braze.jetpackcompose.LocalContentCardStyling
 import com.braze.jetpackcompose.contentcards.styling.ContentCardStyling
+import com.braze.jetpackcompose.contentcards.styling.resolvedContentCardStyle
 import com.braze.models.cards.CaptionedImageCard
 import com.braze.models.cards.Card
 import com.braze.models.cards.ImageOnlyCard
@@ -68,6 +69,7 @@ fun ContentCard(
     val context = LocalContext.current
 
     val tag = "ContentCardComposable"
+    val resolvedStyle = resolvedContentCardStyle(style, card.cardType)
 
     // Track the unread with this so we can dynamically change it if needed
     var isUnread by remember { mutableStateOf(!card.isIndicatorHighlighted) }
@@ -105,8 +107,8 @@ fun ContentCard(
             .fillMaxWidth()
             .padding(
                 PaddingValues(
-                    start = style.listPadding,
-                    end = style.listPadding,
+                    start = resolvedStyle.listPadding,
+                    end = resolvedStyle.listPadding,
                 ),
             ),
     ) {
@@ -114,15 +116,15 @@ fun ContentCard(
 
         val parentWidth = maxWidth
         var extraPadding = 0.dp
-        val maxWidth = style.maxCardWidth()
+        val maxWidth = resolvedStyle.maxCardWidth
         if (parentWidth > maxWidth) {
             extraPadding = (parentWidth - maxWidth) / 2
         }
 
         Box(
             modifier =
-                style
-                    .cardModifier(type = card.cardType, extraPadding)
+                resolvedStyle
+                    .cardModifier(extraPadding)
                     .clickable {
                         if (!card.isIndicatorHighlighted) {
                             card.isIndicatorHighlighted = true
@@ -147,13 +149,13 @@ fun ContentCard(
                     textAnnouncementCard.title?.let {
                         Text(
                             text = it,
-                            style = style.titleTextStyle(type = card.cardType),
+                            style = resolvedStyle.titleTextStyle,
                             modifier = Modifier.padding(PaddingValues(bottom = style.textAnnouncementContentCardStyle.titlePaddingBottom)),
                         )
                     }
                     Text(
                         text = textAnnouncementCard.description,
-                        style = style.descriptionTextStyle(type = card.cardType),
+                        style = resolvedStyle.descriptionTextStyle,
                     )
                     if (textAnnouncementCard.url != null) {
                         val hintActionText =
@@ -161,7 +163,7 @@ fun ContentCard(
                         if (hintActionText != null) {
                             Text(
                                 text = hintActionText,
-                                style = style.hintActionTextStyle(type = card.cardType),
+                                style = resolvedStyle.actionHintTextStyle,
                                 modifier =
                                     Modifier.padding(
                                         PaddingValues(top = style.textAnnouncementContentCardStyle.actionHintPaddingTop),
@@ -174,7 +176,7 @@ fun ContentCard(
 
             if (card.cardType == CardType.IMAGE) {
                 val imageOnlyCard = card as ImageOnlyCard
-                val customComposable = style.imageComposable(card.cardType)
+                val customComposable = resolvedStyle.imageComposable
                 if (customComposable != null) {
                     customComposable.invoke(card)
                 } else {
@@ -203,7 +205,7 @@ fun ContentCard(
             if (card.cardType == CardType.CAPTIONED_IMAGE) {
                 val captionedImageCard = card as CaptionedImageCard
                 Column {
-                    val customComposable = style.imageComposable(card.cardType)
+                    val customComposable = resolvedStyle.imageComposable
                     if (customComposable != null) {
                         customComposable.invoke(card)
                     } else {
@@ -241,11 +243,11 @@ fun ContentCard(
                     ) {
                         Text(
                             text = captionedImageCard.title,
-                            style = style.titleTextStyle(type = card.cardType),
+                            style = resolvedStyle.titleTextStyle,
                         )
                         Text(
                             text = captionedImageCard.description,
-                            style = style.descriptionTextStyle(type = card.cardType),
+                            style = resolvedStyle.descriptionTextStyle,
                             modifier =
                                 Modifier.padding(
                                     PaddingValues(
@@ -259,7 +261,7 @@ fun ContentCard(
                             if (hintActionText != null) {
                                 Text(
                                     text = hintActionText,
-                                    style = style.hintActionTextStyle(type = card.cardType),
+                                    style = resolvedStyle.actionHintTextStyle,
                                     modifier =
                                         Modifier.padding(
                                             PaddingValues(top = style.captionedImageContentCardStyle.actionHintPaddingTop),
@@ -274,7 +276,7 @@ fun ContentCard(
             if (card.cardType == CardType.SHORT_NEWS) {
                 val shortNewsCard = card as ShortNewsCard
                 Row {
-                    val customComposable = style.imageComposable(card.cardType)
+                    val customComposable = resolvedStyle.imageComposable
                     if (customComposable != null) {
                         customComposable.invoke(card)
                     } else {
@@ -313,13 +315,13 @@ fun ContentCard(
                         shortNewsCard.title?.let {
                             Text(
                                 text = it,
-                                style = style.titleTextStyle(type = card.cardType),
+                                style = resolvedStyle.titleTextStyle,
                                 maxLines = style.shortNewsContentCardStyle.titleMaxLines,
                             )
                         }
                         Text(
                             text = shortNewsCard.description,
-                            style = style.descriptionTextStyle(type = card.cardType),
+                            style = resolvedStyle.descriptionTextStyle,
                             modifier =
                                 Modifier.padding(
                                     PaddingValues(
@@ -333,7 +335,7 @@ fun ContentCard(
                             if (hintActionText != null) {
                                 Text(
                                     text = hintActionText,
-                                    style = style.hintActionTextStyle(type = card.cardType),
+                                    style = resolvedStyle.actionHintTextStyle,
                                     modifier = Modifier.padding(PaddingValues(top = style.shortNewsContentCardStyle.actionHintPaddingTop)),
                                 )
                             }
@@ -351,22 +353,22 @@ fun ContentCard(
                         Modifier
                             .fillMaxWidth()
                             .align(Alignment.BottomCenter),
-                    color = style.unreadIndicatorColor(card.cardType),
+                    color = resolvedStyle.unreadIndicatorColor,
                     thickness = 4.dp,
                 )
             }
 
             if (card.isPinned) {
-                val customPin = style.pinnedComposable(card.cardType)
+                val customPin = resolvedStyle.pinnedComposable
                 if (customPin != null) {
                     customPin.invoke()
                 } else {
                     Image(
-                        painter = painterResource(id = style.pinnedResourceId(card.cardType)),
+                        painter = painterResource(id = resolvedStyle.pinnedResourceId),
                         contentDescription = null,
                         modifier =
                             Modifier
-                                .align(style.pinnedAlignment(card))
+                                .align(resolvedStyle.pinnedAlignment)
                                 .padding(horizontal = extraPadding)
                                 .run {
                                     if (Locale.getDefault().layoutDirection == LayoutDirection.RTL) {
@@ -1,16 +1,10 @@
 package com.braze.jetpackcompose.contentcards.styling
 
 import android.annotation.SuppressLint
-import androidx.compose.foundation.background
-import androidx.compose.foundation.layout.fillMaxWidth
-import androidx.compose.foundation.layout.padding
-import androidx.compose.foundation.layout.wrapContentHeight
-import androidx.compose.foundation.shape.RoundedCornerShape
 import androidx.compose.runtime.Composable
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.BiasAlignment
 import androidx.compose.ui.Modifier
-import androidx.compose.ui.draw.clip
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.res.colorResource
 import androidx.compose.ui.res.dimensionResource
@@ -251,9 +245,11 @@ open class ContentCardStyling(
         }
     }
 
-    fun pinnedAlignment(card: Card): Alignment {
+    fun pinnedAlignment(card: Card): Alignment = pinnedAlignment(card.cardType)
+
+    private fun pinnedAlignment(type: CardType): Alignment {
         val alignment =
-            when (card.cardType) {
+            when (type) {
                 CardType.IMAGE -> imageOnlyContentCardStyle.pinnedImageAlignment
                 CardType.TEXT_ANNOUNCEMENT -> textAnnouncementContentCardStyle.pinnedImageAlignment
                 CardType.SHORT_NEWS -> shortNewsContentCardStyle.pinnedImageAlignment
@@ -675,61 +671,62 @@ open class ContentCardStyling(
     fun cardModifier(
         type: CardType,
         extraPadding: Dp,
-    ): Modifier {
-        var cardModifier: Modifier?
-        when (type) {
-            CardType.IMAGE -> {
-                cardModifier = imageOnlyContentCardStyle.modifier
-            }
-
-            CardType.TEXT_ANNOUNCEMENT -> {
-                cardModifier = textAnnouncementContentCardStyle.modifier
-            }
-
-            CardType.SHORT_NEWS -> {
-                cardModifier = shortNewsContentCardStyle.modifier
-            }
-
-            CardType.CAPTIONED_IMAGE -> {
-                cardModifier = captionedImageContentCardStyle.modifier
-            }
-
-            else -> {
-                cardModifier = modifier
-            }
-        }
-
-        // If we don't have a modifier, then try to use the general card modifier
-        if (cardModifier == null) {
-            cardModifier = modifier
-        }
+    ): Modifier =
+        customCardModifier(type) ?: buildDefaultCardModifier(
+            extraPadding = extraPadding,
+            shadowRadius = shadowRadius(type),
+            shadowColor = shadowColor(type),
+            shadowSize = shadowSize(type),
+            borderColor = borderColor(type),
+            startBorderSize = startBorderSize(type),
+            endBorderSize = endBorderSize(type),
+            topBorderSize = topBorderSize(type),
+            bottomBorderSize = bottomBorderSize(type),
+            borderRadius = borderRadius(type),
+            cardBackgroundColor = cardBackgroundColor(type),
+        )
 
-        val cardBorderRadius = borderRadius(type)
-        val cardShadowRadius = shadowRadius(type)
-
-        // If we still don't have a modifier, then construct a modifier with the background color
-        if (cardModifier == null) {
-            cardModifier =
-                Modifier
-                    .wrapContentHeight()
-                    .fillMaxWidth()
-                    .padding(horizontal = extraPadding)
-                    .clip(RoundedCornerShape(cardShadowRadius))
-                    .background(shadowColor(type))
-                    .padding(bottom = shadowSize(type))
-                    .clip(RoundedCornerShape(cardShadowRadius))
-                    .background(borderColor(type))
-                    .padding(
-                        start = startBorderSize(type),
-                        end = endBorderSize(type),
-                        top = topBorderSize(type),
-                        bottom = bottomBorderSize(type),
-                    ).clip(RoundedCornerShape(cardBorderRadius))
-                    .background(cardBackgroundColor(type))
-        }
+    /**
+     * Resolves every styling value of [type] at once. Used to render cards without looking up the
+     * same resources for every card.
+     */
+    @Composable
+    fun resolve(type: CardType): ResolvedContentCardStyle =
+        ResolvedContentCardStyle(
+            listPadding = listPadding,
+            maxCardWidth = maxCardWidth(),
+            customModifier = customCardModifier(type),
+            cardBackgroundColor = cardBackgroundColor(type),
+            borderColor = borderColor(type),
+            topBorderSize = topBorderSize(type),
+            startBorderSize = startBorderSize(type),
+            endBorderSize = endBorderSize(type),
+            bottomBorderSize = bottomBorderSize(type),
+            borderRadius = borderRadius(type),
+            shadowColor = shadowColor(type),
+            shadowSize = shadowSize(type),
+            shadowRadius = shadowRadius(type),
+            titleTextStyle = titleTextStyle(type),
+            descriptionTextStyle = descriptionTextStyle(type),
+            actionHintTextStyle = hintActionTextStyle(type),
+            unreadIndicatorColor = unreadIndicatorColor(type),
+            pinnedResourceId = pinnedResourceId(type),
+            pinnedAlignment = pinnedAlignment(type),
+            pinnedComposable = pinnedComposable(type),
+            imageComposable = imageComposable(type),
+        )
 
-        return cardModifier
-    }
+    /**
+     * The modifier specified for [type], or else the general [modifier].
+     */
+    private fun customCardModifier(type: CardType): Modifier? =
+        when (type) {
+            CardType.IMAGE -> imageOnlyContentCardStyle.modifier
+            CardType.TEXT_ANNOUNCEMENT -> textAnnouncementContentCardStyle.modifier
+            CardType.SHORT_NEWS -> shortNewsContentCardStyle.modifier
+            CardType.CAPTIONED_IMAGE -> captionedImageContentCardStyle.modifier
+            else -> null
+        } ?: modifier
 }
 
 /**
@@ -0,0 +1,142 @@
+package com.braze.jetpackcompose.contentcards.styling
+
+import androidx.compose.foundation.background
+import androidx.compose.foundation.layout.fillMaxWidth
+import androidx.compose.foundation.layout.padding
+import androidx.compose.foundation.layout.wrapContentHeight
+import androidx.compose.foundation.shape.RoundedCornerShape
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.Immutable
+import androidx.compose.runtime.Stable
+import androidx.compose.runtime.remember
+import androidx.compose.runtime.staticCompositionLocalOf
+import androidx.compose.ui.Alignment
+import androidx.compose.ui.Modifier
+import androidx.compose.ui.draw.clip
+import androidx.compose.ui.graphics.Color
+import androidx.compose.ui.platform.LocalConfiguration
+import androidx.compose.ui.text.TextStyle
+import androidx.compose.ui.unit.Dp
+import com.braze.enums.CardType
+import com.braze.models.cards.Card
+
+/**
+ * The styling of one [CardType], with every fallback of [ContentCardStyling] already applied. Holds
+ * no resource ids to look up, so reading it during composition is free.
+ */
+@Immutable
+@Suppress("LongParameterList")
+class ResolvedContentCardStyle internal constructor(
+    val listPadding: Dp,
+    val maxCardWidth: Dp,
+    val customModifier: Modifier?,
+    val cardBackgroundColor: Color,
+    val borderColor: Color,
+    val topBorderSize: Dp,
+    val startBorderSize: Dp,
+    val endBorderSize: Dp,
+    val bottomBorderSize: Dp,
+    val borderRadius: Dp,
+    val shadowColor: Color,
+    val shadowSize: Dp,
+    val shadowRadius: Dp,
+    val titleTextStyle: TextStyle,
+    val descriptionTextStyle: TextStyle,
+    val actionHintTextStyle: TextStyle,
+    val unreadIndicatorColor: Color,
+    val pinnedResourceId: Int,
+    val pinnedAlignment: Alignment,
+    val pinnedComposable: @Composable (() -> Unit)?,
+    val imageComposable: @Composable ((Card) -> Unit)?,
+) {
+    /**
+     * Same as [ContentCardStyling.cardModifier].
+     */
+    fun cardModifier(extraPadding: Dp): Modifier =
+        customModifier ?: buildDefaultCardModifier(
+            extraPadding = extraPadding,
+            shadowRadius = shadowRadius,
+            shadowColor = shadowColor,
+            shadowSize = shadowSize,
+            borderColor = borderColor,
+            startBorderSize = startBorderSize,
+            endBorderSize = endBorderSize,
+            topBorderSize = topBorderSize,
+            bottomBorderSize = bottomBorderSize,
+            borderRadius = borderRadius,
+            cardBackgroundColor = cardBackgroundColor,
+        )
+}
+
+/**
+ * Resolves the [ResolvedContentCardStyle] of each [CardType] of [style] once, on first use.
+ * Must be recreated when the configuration changes, since resource values depend on it.
+ */
+@Stable
+internal class ResolvedContentCardStyleCache(
+    val style: ContentCardStyling,
+) {
+    private val resolvedStyles = HashMap<CardType, ResolvedContentCardStyle>()
+
+    @Composable
+    fun get(type: CardType): ResolvedContentCardStyle = resolvedStyles[type] ?: style.resolve(type).also { resolvedStyles[type] = it }
+}
+
+/** The [ResolvedContentCardStyleCache] shared by the cards of a Content Cards list. */
+internal val LocalResolvedContentCardStyleCache = staticCompositionLocalOf<ResolvedContentCardStyleCache?> { null }
+
+/**
+ * Returns a [ResolvedContentCardStyleCache] for [style] that lives as long as [style] and the
+ * current configuration don't change.
+ */
+@Composable
+internal fun rememberResolvedContentCardStyleCache(style: ContentCardStyling): ResolvedContentCardStyleCache {
+    val configuration = LocalConfiguration.current
+    return remember(style, configuration) { ResolvedContentCardStyleCache(style) }
+}
+
+/**
+ * Returns the resolved style of [type], from the enclosing list's cache when it was built for the same
+ * [style].
+ */
+@Composable
+internal fun resolvedContentCardStyle(
+    style: ContentCardStyling,
+    type: CardType,
+): ResolvedContentCardStyle {
+    val cache =
+        LocalResolvedContentCardStyleCache.current?.takeIf { it.style === style }
+            ?: rememberResolvedContentCardStyleCache(style)
+    return cache.get(type)
+}
+
+@Suppress("LongParameterList")
+internal fun buildDefaultCardModifier(
+    extraPadding: Dp,
+    shadowRadius: Dp,
+    shadowColor: Color,
+    shadowSize: Dp,
+    borderColor: Color,
+    startBorderSize: Dp,
+    endBorderSize: Dp,
+    topBorderSize: Dp,
+    bottomBorderSize: Dp,
+    borderRadius: Dp,
+    cardBackgroundColor: Color,
+): Modifier =
+    Modifier
+        .wrapContentHeight()
+        .fillMaxWidth()
+        .padding(horizontal = extraPadding)
+        .clip(RoundedCornerShape(shadowRadius))
+        .background(shadowColor)
+        .padding(bottom = shadowSize)
+        .clip(RoundedCornerShape(shadowRadius))
+        .background(borderColor)
+        .padding(
+            start = startBorderSize,
+            end = endBorderSize,
+            top = topBorderSize,
+            bottom = bottomBorderSize,
+        ).clip(RoundedCornerShape(borderRadius))
+        .background(cardBackgroundColor)
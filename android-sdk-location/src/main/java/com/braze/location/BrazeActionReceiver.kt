@@ -17,10 +17,6 @@ import com.braze.support.BrazeLogger.Priority.W
 import com.braze.support.BrazeLogger.brazelog
 import com.google.android.gms.location.Geofence
 import com.google.android.gms.location.GeofencingEvent
-import kotlinx.coroutines.DelicateCoroutinesApi
-import kotlinx.coroutines.Dispatchers
-import kotlinx.coroutines.GlobalScope
-import kotlinx.coroutines.launch
 
 /**
  * [BroadcastReceiver] that handles geofence transitions and single location
@@ -28,7 +24,6 @@ import kotlinx.coroutines.launch
  */
 @Keep
 class BrazeActionReceiver : BroadcastReceiver() {
-    @OptIn(DelicateCoroutinesApi::class)
     override fun onReceive(
         context: Context?,
         intent: Intent?,
@@ -45,12 +40,8 @@ class BrazeActionReceiver : BroadcastReceiver() {
         // to finish processing. By default, a BroadcastReceiver is allowed 5 seconds (due to the ANR limit)
         // for processing.
         val pendingResult = goAsync()
-        val actionReceiver = ActionReceiver(applicationContext, intent)
-
-        GlobalScope.launch(Dispatchers.IO) {
-            actionReceiver.run()
-            pendingResult.finish()
-        }
+        // Intents are handled one at a time, so bursts of geofence transitions don't run concurrently
+        BrazeActionReceiverQueue.enqueue(ActionReceiver(applicationContext, intent), pendingResult)
     }
 
     @VisibleForTesting
@@ -58,7 +49,11 @@ class BrazeActionReceiver : BroadcastReceiver() {
         private val applicationContext: Context,
         private val intent: Intent,
     ) {
-        private val action: String? = intent.action
+        val action: String? = intent.action
+
+        /** A single location update is superseded by any newer one, so it may be dropped under load. */
+        val isSingleLocationUpdate: Boolean
+            get() = action == Constants.BRAZE_ACTION_RECEIVER_SINGLE_LOCATION_UPDATE_INTENT_ACTION
 
         fun run() {
             try {
@@ -110,7 +105,9 @@ class BrazeActionReceiver : BroadcastReceiver() {
                 location: Location,
             ): Boolean {
                 try {
-                    BrazeInternal.logLocationRecordedEvent(applicationContext, BrazeLocation(location))
+                    val brazeLocation = BrazeLocation(location)
+                    GooglePlayLocationUtils.onLocationUpdate(applicationContext, brazeLocation)
+                    BrazeInternal.logLocationRecordedEvent(applicationContext, brazeLocation)
                 } catch (e: Exception) {
                     brazelog(E, e) { "Exception while processing single location update" }
                     return false
@@ -140,23 +137,27 @@ class BrazeActionReceiver : BroadcastReceiver() {
                 val triggeringGeofences = geofenceEvent.triggeringGeofences
                 return when {
                     Geofence.GEOFENCE_TRANSITION_ENTER == transitionType -> {
-                        triggeringGeofences?.forEach { geofence ->
-                            BrazeInternal.recordGeofenceTransition(
-                                applicationContext,
-                                geofence.requestId,
-                                GeofenceTransitionType.ENTER,
-                            )
-                        }
+                        triggeringGeofences
+                            ?.filter { GeofenceTransitionCoalescer.shouldRecord(it.requestId, GeofenceTransitionType.ENTER) }
+                            ?.forEach { geofence ->
+                                BrazeInternal.recordGeofenceTransition(
+                                    applicationContext,
+                                    geofence.requestId,
+                                    GeofenceTransitionType.ENTER,
+                                )
+                            }
                         true
                     }
                     Geofence.GEOFENCE_TRANSITION_EXIT == transitionType -> {
-                        triggeringGeofences?.forEach { geofence ->
-                            BrazeInternal.recordGeofenceTransition(
-                                applicationContext,
-                                geofence.requestId,
-                                GeofenceTransitionType.EXIT,
-                            )
-                        }
+                        triggeringGeofences
+                            ?.filter { GeofenceTransitionCoalescer.shouldRecord(it.requestId, GeofenceTransitionType.EXIT) }
+                            ?.forEach { geofence ->
+                                BrazeInternal.recordGeofenceTransition(
+                                    applicationContext,
+                                    geofence.requestId,
+                                    GeofenceTransitionType.EXIT,
+                                )
+                            }
                         true
                     }
                     else -> {
@@ -0,0 +1,189 @@
+package com.braze.location
+
+import android.content.BroadcastReceiver
+import android.os.SystemClock
+import com.braze.enums.GeofenceTransitionType
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.Priority.W
+import com.braze.support.BrazeLogger.brazelog
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.consumeEach
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A bounded queue that runs the work of [BrazeActionReceiver] one intent at a time.
+ *
+ * Every queued intent holds the [BroadcastReceiver.PendingResult] from [BroadcastReceiver.goAsync].
+ * The result is finished once the work is done, or at the latest [PENDING_RESULT_DEADLINE_MS] after
+ * the intent was received, so the system never considers the receiver stuck.
+ *
+ * When [MAX_QUEUE_SIZE] intents are already waiting, the oldest single location update is dropped,
+ * since a newer location supersedes it. Geofence transitions are never dropped, even if the queue
+ * then grows past [MAX_QUEUE_SIZE]. Repeated transitions are dropped by [GeofenceTransitionCoalescer]
+ * when they are processed.
+ */
+internal object BrazeActionReceiverQueue {
+    const val MAX_QUEUE_SIZE = 32
+
+    /** Work started with goAsync() must finish within 10 seconds. */
+    const val PENDING_RESULT_DEADLINE_MS = 9_000L
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    private val isWorkerStarted = AtomicBoolean(false)
+    private val queueDepth = AtomicInteger(0)
+    private val maxQueueDepth = AtomicInteger(0)
+    private val processedCount = AtomicLong(0)
+    private val droppedCount = AtomicLong(0)
+    private val totalLatencyMs = AtomicLong(0)
+
+    /** The waiting intents, oldest first. Guarded by itself. */
+    private val queue = ArrayDeque<QueuedWork>()
+
+    /** Wakes the worker up when intents were queued. */
+    private val workAvailable = Channel<Unit>(Channel.CONFLATED)
+
+    /** The number of intents currently waiting to be processed. */
+    val currentQueueDepth: Int
+        get() = queueDepth.get()
+
+    /** The highest number of intents that were waiting at once. */
+    val highestQueueDepth: Int
+        get() = maxQueueDepth.get()
+
+    /** The number of intents processed so far. */
+    val totalProcessedCount: Long
+        get() = processedCount.get()
+
+    /** The number of single location updates dropped because the queue was full. */
+    val totalDroppedCount: Long
+        get() = droppedCount.get()
+
+    /** The average time, in milliseconds, from receiving an intent to finishing its work. */
+    val averageLatencyMs: Long
+        get() = processedCount.get().let { if (it == 0L) 0L else totalLatencyMs.get() / it }
+
+    /**
+     * Queues [actionReceiver]. [pendingResult] is finished once its work is done or its deadline passed.
+     */
+    fun enqueue(
+        actionReceiver: BrazeActionReceiver.ActionReceiver,
+        pendingResult: BroadcastReceiver.PendingResult?,
+    ) {
+        val work = QueuedWork(actionReceiver, pendingResult, SystemClock.elapsedRealtime())
+        work.deadlineJob =
+            scope.launch {
+                delay(PENDING_RESULT_DEADLINE_MS)
+                if (work.finish()) {
+                    brazelog(W) { "BrazeActionReceiver work for ${actionReceiver.action} passed its deadline. Finishing the broadcast." }
+                }
+            }
+        val droppedWork =
+            synchronized(queue) {
+                queue.addLast(work)
+                val dropped =
+                    if (queue.size > MAX_QUEUE_SIZE) {
+                        queue.firstOrNull { it.actionReceiver.isSingleLocationUpdate }?.also { queue.remove(it) }
+                    } else {
+                        null
+                    }
+                queueDepth.set(queue.size)
+                if (queue.size > maxQueueDepth.get()) {
+                    maxQueueDepth.set(queue.size)
+                }
+                dropped
+            }
+        droppedWork?.let {
+            brazelog(W) { "BrazeActionReceiver queue is full. Dropping the oldest single location update." }
+            droppedCount.incrementAndGet()
+            it.finish()
+        }
+        workAvailable.trySend(Unit)
+        startWorkerIfNeeded()
+    }
+
+    private fun takeNextWork(): QueuedWork? =
+        synchronized(queue) {
+            queue.removeFirstOrNull()?.also { queueDepth.set(queue.size) }
+        }
+
+    private fun startWorkerIfNeeded() {
+        if (!isWorkerStarted.compareAndSet(false, true)) {
+            return
+        }
+        scope.launch {
+            workAvailable.consumeEach {
+                while (true) {
+                    val work = takeNextWork() ?: break
+                    work.actionReceiver.run()
+                    val latencyMs = SystemClock.elapsedRealtime() - work.receivedAtMs
+                    processedCount.incrementAndGet()
+                    totalLatencyMs.addAndGet(latencyMs)
+                    work.finish()
+                    brazelog(V) {
+                        "Processed BrazeActionReceiver intent ${work.actionReceiver.action} in $latencyMs ms. " +
+                            "$currentQueueDepth intents still queued, average latency $averageLatencyMs ms."
+                    }
+                }
+            }
+        }
+    }
+
+    private class QueuedWork(
+        val actionReceiver: BrazeActionReceiver.ActionReceiver,
+        private val pendingResult: BroadcastReceiver.PendingResult?,
+        val receivedAtMs: Long,
+    ) {
+        private val isFinished = AtomicBoolean(false)
+        var deadlineJob: Job? = null
+
+        /**
+         * Finishes the pending result once.
+         *
+         * @return true if this call finished it.
+         */
+        fun finish(): Boolean {
+            if (!isFinished.compareAndSet(false, true)) {
+                return false
+            }
+            deadlineJob?.cancel()
+            pendingResult?.finish()
+            return true
+        }
+    }
+}
+
+/**
+ * Drops repeated geofence transitions. Google Play Services can deliver the same transition several
+ * times in a burst, and only the first one within [COALESCE_WINDOW_MS] is recorded.
+ */
+internal object GeofenceTransitionCoalescer {
+    const val COALESCE_WINDOW_MS = 10_000L
+
+    private val lastTransitions = HashMap<String, Pair<GeofenceTransitionType, Long>>()
+
+    /**
+     * @return false if the same transition for [geofenceId] was already recorded within the window.
+     */
+    @Synchronized
+    fun shouldRecord(
+        geofenceId: String,
+        transitionType: GeofenceTransitionType,
+        nowMs: Long = SystemClock.elapsedRealtime(),
+    ): Boolean {
+        val lastTransition = lastTransitions[geofenceId]
+        if (lastTransition != null && lastTransition.first == transitionType && nowMs - lastTransition.second < COALESCE_WINDOW_MS) {
+            brazelog { "Coalescing repeated $transitionType transition for geofence $geofenceId" }
+            return false
+        }
+        lastTransitions[geofenceId] = transitionType to nowMs
+        return true
+    }
+}
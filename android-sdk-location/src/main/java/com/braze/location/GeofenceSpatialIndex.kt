@@ -0,0 +1,271 @@
+package com.braze.location
+
+import com.braze.models.BrazeGeofence
+import kotlin.math.abs
+import kotlin.math.ceil
+import kotlin.math.cos
+import kotlin.math.floor
+import kotlin.math.min
+
+/**
+ * An immutable grid index over the centers of a list of [BrazeGeofence]s, kept in primitive arrays.
+ *
+ * The world is split into square cells of [cellSizeDegrees]. Geofences are sorted by the cell their
+ * center falls into, so the geofences of a cell are found with a binary search over the occupied
+ * cells. Nearest geofence queries visit rings of cells around the query point until no unvisited
+ * cell can hold a nearer geofence, and fall back to a linear scan when they would visit more cells
+ * than there are geofences.
+ *
+ * Distances are measured to the boundary of a geofence, meaning the distance to its center minus its
+ * radius, and are negative inside a geofence.
+ */
+@Suppress("MagicNumber")
+internal class GeofenceSpatialIndex(
+    val geofences: List<BrazeGeofence>,
+    private val cellSizeDegrees: Double = DEFAULT_CELL_SIZE_DEGREES,
+) {
+    private val latitudes = DoubleArray(geofences.size) { geofences[it].latitude }
+    private val longitudes = DoubleArray(geofences.size) { geofences[it].longitude }
+    private val radii = DoubleArray(geofences.size) { geofences[it].radiusMeter }
+    private val maxRadius = radii.maxOrNull() ?: 0.0
+    private val latitudeCellCount = ceil(180 / cellSizeDegrees).toInt()
+    private val longitudeCellCount = ceil(360 / cellSizeDegrees).toInt()
+
+    /** The occupied cell keys, sorted. */
+    private val cellKeys: LongArray
+
+    /** The start of each cell of [cellKeys] in [sortedIndices], followed by the total count. */
+    private val cellStarts: IntArray
+
+    /** Indices into [geofences], grouped by cell. */
+    private val sortedIndices: IntArray
+
+    init {
+        val keys = LongArray(geofences.size) { getCellKey(getLatitudeCell(latitudes[it]), getLongitudeCell(longitudes[it])) }
+        sortedIndices = geofences.indices.sortedBy { keys[it] }.toIntArray()
+        val occupiedKeys = mutableListOf<Long>()
+        val starts = mutableListOf<Int>()
+        sortedIndices.forEachIndexed { position, index ->
+            if (occupiedKeys.isEmpty() || occupiedKeys.last() != keys[index]) {
+                occupiedKeys.add(keys[index])
+                starts.add(position)
+            }
+        }
+        starts.add(sortedIndices.size)
+        cellKeys = occupiedKeys.toLongArray()
+        cellStarts = starts.toIntArray()
+    }
+
+    val size: Int
+        get() = geofences.size
+
+    /**
+     * Returns the indices of the [count] geofences whose boundaries are nearest to the given point,
+     * nearest first.
+     */
+    fun getNearestIndices(
+        latitude: Double,
+        longitude: Double,
+        count: Int,
+    ): IntArray {
+        val resultCount = min(count, size)
+        if (resultCount <= 0) {
+            return IntArray(0)
+        }
+        val candidates = NearestCandidates(resultCount)
+        val centerLatitudeCell = getLatitudeCell(latitude)
+        val centerLongitudeCell = getLongitudeCell(longitude)
+        // Rings past this one would visit longitude cells twice
+        val maxRing = (longitudeCellCount - 1) / 2
+        var ring = 0
+        var visitedCellCount = 0
+        while (true) {
+            // Every geofence in this ring or beyond is at least this far away
+            if (candidates.isFull && getRingLowerBoundMeters(latitude, ring) - maxRadius > candidates.maxDistance) {
+                break
+            }
+            visitedCellCount += if (ring == 0) 1 else 8 * ring
+            if (visitedCellCount > size || ring > maxRing) {
+                return getNearestIndicesByScan(latitude, longitude, resultCount)
+            }
+            forEachCellInRing(centerLatitudeCell, centerLongitudeCell, ring) { index ->
+                candidates.offer(index, getBoundaryDistanceMeters(index, latitude, longitude))
+            }
+            ring++
+        }
+        return candidates.toSortedIndices()
+    }
+
+    private fun getNearestIndicesByScan(
+        latitude: Double,
+        longitude: Double,
+        count: Int,
+    ): IntArray {
+        val candidates = NearestCandidates(count)
+        for (index in geofences.indices) {
+            candidates.offer(index, getBoundaryDistanceMeters(index, latitude, longitude))
+        }
+        return candidates.toSortedIndices()
+    }
+
+    private fun getBoundaryDistanceMeters(
+        index: Int,
+        latitude: Double,
+        longitude: Double,
+    ) = getDistanceMeters(latitude, longitude, latitudes[index], longitudes[index]) - radii[index]
+
+    /**
+     * A lower bound of the distance from a point at [latitude] to any point in a cell [ring] cells away.
+     */
+    private fun getRingLowerBoundMeters(
+        latitude: Double,
+        ring: Int,
+    ): Double {
+        if (ring <= 1) {
+            return 0.0
+        }
+        return (ring - 1) * cellSizeDegrees * METERS_PER_DEGREE * getLongitudeScale(latitude, ring + 1)
+    }
+
+    /**
+     * Meters per degree of longitude relative to [METERS_PER_DEGREE], for the narrowest cells within
+     * [cellCount] cells of [latitude]. Reduced by [DISTANCE_SAFETY_FACTOR], since the great-circle
+     * distance between two points is shorter than the distance along their parallel.
+     */
+    private fun getLongitudeScale(
+        latitude: Double,
+        cellCount: Int,
+    ) = cos(Math.toRadians(min(MAX_LATITUDE_FOR_SCALE, abs(latitude) + cellCount * cellSizeDegrees))) * DISTANCE_SAFETY_FACTOR
+
+    private inline fun forEachCellInRing(
+        centerLatitudeCell: Int,
+        centerLongitudeCell: Int,
+        ring: Int,
+        action: (Int) -> Unit,
+    ) {
+        if (ring == 0) {
+            forEachInCell(centerLatitudeCell, centerLongitudeCell, action)
+            return
+        }
+        for (latitudeOffset in -ring..ring) {
+            val latitudeCell = centerLatitudeCell + latitudeOffset
+            if (latitudeCell < 0 || latitudeCell >= latitudeCellCount) {
+                continue
+            }
+            val isEdgeRow = abs(latitudeOffset) == ring
+            val longitudeStep = if (isEdgeRow) 1 else 2 * ring
+            var longitudeOffset = -ring
+            while (longitudeOffset <= ring) {
+                forEachInCell(latitudeCell, wrapLongitudeCell(centerLongitudeCell + longitudeOffset), action)
+                longitudeOffset += longitudeStep
+            }
+        }
+    }
+
+    private inline fun forEachInCell(
+        latitudeCell: Int,
+        longitudeCell: Int,
+        action: (Int) -> Unit,
+    ) {
+        val cell = cellKeys.binarySearch(getCellKey(latitudeCell, longitudeCell))
+        if (cell < 0) {
+            return
+        }
+        for (position in cellStarts[cell] until cellStarts[cell + 1]) {
+            action(sortedIndices[position])
+        }
+    }
+
+    private fun getLatitudeCell(latitude: Double) = floor((latitude + 90) / cellSizeDegrees).toInt().coerceIn(0, latitudeCellCount - 1)
+
+    private fun getLongitudeCell(longitude: Double) = wrapLongitudeCell(floor((longitude + 180) / cellSizeDegrees).toInt())
+
+    private fun wrapLongitudeCell(longitudeCell: Int) = (longitudeCell % longitudeCellCount + longitudeCellCount) % longitudeCellCount
+
+    private fun getCellKey(
+        latitudeCell: Int,
+        longitudeCell: Int,
+    ) = latitudeCell.toLong() * longitudeCellCount + longitudeCell
+
+    /**
+     * Keeps the [capacity] nearest indices offered so far as a max-heap on distance.
+     */
+    private class NearestCandidates(
+        private val capacity: Int,
+    ) {
+        private val indices = IntArray(capacity)
+        private val distances = DoubleArray(capacity)
+        private var count = 0
+
+        val isFull: Boolean
+            get() = count == capacity
+
+        val maxDistance: Double
+            get() = distances[0]
+
+        fun offer(
+            index: Int,
+            distance: Double,
+        ) {
+            if (count < capacity) {
+                indices[count] = index
+                distances[count] = distance
+                siftUp(count++)
+            } else if (distance < distances[0]) {
+                indices[0] = index
+                distances[0] = distance
+                siftDown(0)
+            }
+        }
+
+        fun toSortedIndices(): IntArray = (0 until count).sortedBy { distances[it] }.map { indices[it] }.toIntArray()
+
+        private fun siftUp(start: Int) {
+            var child = start
+            while (child > 0) {
+                val parent = (child - 1) / 2
+                if (distances[parent] >= distances[child]) {
+                    return
+                }
+                swap(parent, child)
+                child = parent
+            }
+        }
+
+        private fun siftDown(start: Int) {
+            var parent = start
+            while (true) {
+                val left = 2 * parent + 1
+                if (left >= count) {
+                    return
+                }
+                val right = left + 1
+                val largest = if (right < count && distances[right] > distances[left]) right else left
+                if (distances[parent] >= distances[largest]) {
+                    return
+                }
+                swap(parent, largest)
+                parent = largest
+            }
+        }
+
+        private fun swap(
+            first: Int,
+            second: Int,
+        ) {
+            val index = indices[first]
+            indices[first] = indices[second]
+            indices[second] = index
+            val distance = distances[first]
+            distances[first] = distances[second]
+            distances[second] = distance
+        }
+    }
+
+    companion object {
+        const val DEFAULT_CELL_SIZE_DEGREES = 0.25
+        private const val METERS_PER_DEGREE = 111_195.0
+        private const val MAX_LATITUDE_FOR_SCALE = 89.0
+        private const val DISTANCE_SAFETY_FACTOR = 0.9
+    }
+}
@@ -4,9 +4,11 @@ import android.annotation.SuppressLint
 import android.app.PendingIntent
 import android.content.Context
 import androidx.annotation.VisibleForTesting
+import com.braze.coroutine.BrazeCoroutineScope
 import com.braze.enums.DataStoreKey
 import com.braze.managers.IBrazeGeofenceLocationUpdateListener
 import com.braze.models.BrazeGeofence
+import com.braze.models.IBrazeLocation
 import com.braze.models.outgoing.BrazeLocation
 import com.braze.storage.GeofenceDataStoreProvider
 import com.braze.support.BrazeLogger.Priority.E
@@ -19,6 +21,11 @@ import com.google.android.gms.location.GeofenceStatusCodes
 import com.google.android.gms.location.GeofencingRequest
 import com.google.android.gms.location.LocationServices
 import com.google.android.gms.location.Priority
+import kotlin.math.asin
+import kotlin.math.cos
+import kotlin.math.pow
+import kotlin.math.sin
+import kotlin.math.sqrt
 
 /**
  * Utility methods for interacting with Google Play Location Services to manage
@@ -26,6 +33,43 @@ import com.google.android.gms.location.Priority
  */
 @SuppressLint("MissingPermission")
 object GooglePlayLocationUtils {
+    /** The maximum number of geofences Google Play Location Services allows per app. */
+    const val DEFAULT_MAX_GEOFENCES_TO_REGISTER = 100
+    const val DEFAULT_GEOFENCE_REGISTRATION_CHUNK_SIZE = 25
+    private const val MAX_REGISTRATION_RETRIES = 2
+    private const val REGISTRATION_RETRY_BASE_DELAY_MS = 2_000L
+
+    /**
+     * The maximum number of geofences registered with Google Play Location Services. When more
+     * geofences are desired, the ones nearest to [lastKnownLocation] are registered.
+     * Defaults to [DEFAULT_MAX_GEOFENCES_TO_REGISTER].
+     */
+    @JvmStatic
+    @Volatile
+    var maxGeofencesToRegister = DEFAULT_MAX_GEOFENCES_TO_REGISTER
+
+    /**
+     * The number of geofences registered per [GeofencingRequest]. A failed request only affects its
+     * own geofences, and is retried when the failure may be temporary.
+     * Defaults to [DEFAULT_GEOFENCE_REGISTRATION_CHUNK_SIZE].
+     */
+    @JvmStatic
+    @Volatile
+    var geofenceRegistrationChunkSize = DEFAULT_GEOFENCE_REGISTRATION_CHUNK_SIZE
+
+    /**
+     * The most recent location received by this module, used to rank geofences by proximity.
+     */
+    @Volatile
+    internal var lastKnownLocation: IBrazeLocation? = null
+
+    /**
+     * The geofences last passed to [registerGeofencesWithGooglePlayIfNecessary], when there were more than
+     * [maxGeofencesToRegister] of them. Used to update the registered geofences when the location changes.
+     */
+    @Volatile
+    private var geofenceCandidates: GeofenceCandidates? = null
+
     /**
      * Requests to register the given list of geofences with Google Play Location Services.
      *
@@ -33,6 +77,8 @@ object GooglePlayLocationUtils {
      * needlessly re-registered. Geofences that are registered with Google Play Location Services but
      * not included in [desiredGeofencesToRegister] will be un-registered.
      *
+     * At most [maxGeofencesToRegister] geofences are registered, nearest to [lastKnownLocation] first.
+     *
      * If [desiredGeofencesToRegister] is empty, all geofences will be un-registered and deleted from local
      * storage.
      * @param context context
@@ -59,6 +105,19 @@ object GooglePlayLocationUtils {
         try {
             val registeredGeofences = retrieveRegisteredGeofencesFromLocalStorage(dataStoreProvider)
             val registeredGeofencesById = registeredGeofences.associateBy { it.id }
+            val maxCount = maxGeofencesToRegister
+            val candidateIndex =
+                if (desiredGeofencesToRegister.size > maxCount) {
+                    geofenceCandidates?.index?.takeIf { it.geofences === desiredGeofencesToRegister }
+                        ?: GeofenceSpatialIndex(desiredGeofencesToRegister)
+                } else {
+                    null
+                }
+            val selectedGeofences =
+                candidateIndex?.let { selectNearestGeofences(it, lastKnownLocation, maxCount) } ?: desiredGeofencesToRegister
+            val selectedGeofenceIds = selectedGeofences.mapTo(HashSet()) { it.id }
+            geofenceCandidates =
+                candidateIndex?.let { GeofenceCandidates(it, geofenceRequestIntent, dataStoreProvider, selectedGeofenceIds) }
 
             // Given the input [desiredGeofencesToRegister] and the [registeredGeofences], we need to determine
             // which geofences are to be registered, which are obsolete, and which will be no-ops.
@@ -66,19 +125,16 @@ object GooglePlayLocationUtils {
             // We only want to register geofences that are not already registered.
             // An obsolete Geofence is one that is registered with Google Play Services but is not in the desired list.
 
-            // If any previously registered Geofence is missing from the desired list, it is obsolete.
+            // If any previously registered Geofence is missing from the selected list, it is obsolete.
             val obsoleteGeofenceIds =
                 registeredGeofences
-                    .filter { registeredGeofence ->
-                        desiredGeofencesToRegister.none { desiredGeofence ->
-                            desiredGeofence.id == registeredGeofence.id
-                        }
-                    }.map { it.id }
+                    .filter { it.id !in selectedGeofenceIds }
+                    .map { it.id }
 
             // If any desired Geofence is not already registered, it is new and needs to be registered.
             // Additionally, any previously registered geofence that has received updates should be re-registered.
             val newGeofencesToRegister = mutableListOf<BrazeGeofence>()
-            for (desiredGeofence in desiredGeofencesToRegister) {
+            for (desiredGeofence in selectedGeofences) {
                 val registeredGeofenceWithSameId = registeredGeofencesById[desiredGeofence.id]
                 if (registeredGeofenceWithSameId == null || !desiredGeofence.equivalentServerData(registeredGeofenceWithSameId)) {
                     brazelog { "Geofence with id: ${desiredGeofence.id} is new or has been updated." }
@@ -103,6 +159,57 @@ object GooglePlayLocationUtils {
         }
     }
 
+    /**
+     * Returns the [maxCount] geofences of [geofences] whose boundaries are nearest to [location], nearest
+     * first. Without a location, the first [maxCount] geofences are returned in their given order.
+     */
+    @VisibleForTesting
+    internal fun selectNearestGeofences(
+        index: GeofenceSpatialIndex,
+        location: IBrazeLocation?,
+        maxCount: Int,
+    ): List<BrazeGeofence> {
+        val geofences = index.geofences
+        if (geofences.size <= maxCount) {
+            return geofences
+        }
+        if (location == null) {
+            brazelog { "No known location to rank geofences. Registering the first $maxCount of ${geofences.size} geofences." }
+            return geofences.take(maxOf(0, maxCount))
+        }
+        brazelog { "Registering the $maxCount nearest of ${geofences.size} geofences." }
+        return index
+            .getNearestIndices(location.latitude, location.longitude, maxCount)
+            .map { geofences[it] }
+    }
+
+    /**
+     * Records [location] as the [lastKnownLocation]. If the nearest geofences to [location] differ from the
+     * registered ones, the registered geofences are updated.
+     */
+    internal fun onLocationUpdate(
+        context: Context,
+        location: IBrazeLocation,
+    ) {
+        lastKnownLocation = location
+        val candidates = geofenceCandidates ?: return
+        val geofences = candidates.index.geofences
+        val nearestGeofenceIds =
+            candidates.index
+                .getNearestIndices(location.latitude, location.longitude, maxGeofencesToRegister)
+                .mapTo(HashSet()) { geofences[it].id }
+        if (nearestGeofenceIds == candidates.selectedGeofenceIds) {
+            return
+        }
+        brazelog { "Nearest geofences changed after a location update. Updating registered geofences." }
+        registerGeofencesWithGooglePlayIfNecessary(
+            context,
+            geofences,
+            candidates.geofenceRequestIntent,
+            candidates.dataStoreProvider,
+        )
+    }
+
     internal fun retrieveRegisteredGeofencesFromLocalStorage(dataStoreProvider: GeofenceDataStoreProvider): List<BrazeGeofence> {
         val storedGeofences =
             dataStoreProvider.readList<BrazeGeofence>(
@@ -133,6 +240,7 @@ object GooglePlayLocationUtils {
                 .getCurrentLocation(Priority.PRIORITY_HIGH_ACCURACY, null)
                 .addOnSuccessListener {
                     brazelog(V) { "Single location request from Google Play services was successful." }
+                    it?.let { location -> onLocationUpdate(context, BrazeLocation(location)) }
                     resultListener.onLocationRequestComplete(BrazeLocation(it))
                 }.addOnFailureListener { error: Exception? ->
                     brazelog(E, error) { "Failed to get single location update from Google Play services." }
@@ -168,7 +276,24 @@ object GooglePlayLocationUtils {
         geofenceRequestIntent: PendingIntent,
         dataStoreProvider: GeofenceDataStoreProvider,
     ) {
-        val newGooglePlayGeofencesToRegister = newGeofencesToRegister.map { it.toGeofence() }
+        newGeofencesToRegister
+            .chunked(maxOf(1, geofenceRegistrationChunkSize))
+            .forEach { registerGeofenceChunkWithGeofencingClient(context, it, geofenceRequestIntent, dataStoreProvider, attempt = 0) }
+    }
+
+    /**
+     * Registers one chunk of [BrazeGeofence]s and stores them on success. Failures that may be
+     * temporary are retried with a growing delay, up to [MAX_REGISTRATION_RETRIES] times.
+     */
+    @Suppress("LongMethod")
+    private fun registerGeofenceChunkWithGeofencingClient(
+        context: Context,
+        geofenceChunk: List<BrazeGeofence>,
+        geofenceRequestIntent: PendingIntent,
+        dataStoreProvider: GeofenceDataStoreProvider,
+        attempt: Int,
+    ) {
+        val newGooglePlayGeofencesToRegister = geofenceChunk.map { it.toGeofence() }
         val geofencingRequest =
             GeofencingRequest
                 .Builder()
@@ -179,34 +304,56 @@ object GooglePlayLocationUtils {
             .getGeofencingClient(context)
             .addGeofences(geofencingRequest, geofenceRequestIntent)
             .addOnSuccessListener {
-                brazelog { "Geofences successfully registered with Google Play Services." }
-                storeRegisteredGeofencesToLocalStorage(newGeofencesToRegister, dataStoreProvider)
+                brazelog { "${geofenceChunk.size} geofences successfully registered with Google Play Services." }
+                storeRegisteredGeofencesToLocalStorage(geofenceChunk, dataStoreProvider)
             }.addOnFailureListener { geofenceError: Exception? ->
+                var isRetryable = true
                 if (geofenceError is ApiException) {
                     when (val statusCode = geofenceError.statusCode) {
-                        GeofenceStatusCodes.GEOFENCE_TOO_MANY_GEOFENCES ->
+                        GeofenceStatusCodes.GEOFENCE_TOO_MANY_GEOFENCES -> {
+                            isRetryable = false
                             brazelog(W) {
                                 "Geofences not registered with Google Play Services due to GEOFENCE_TOO_MANY_GEOFENCES: $statusCode"
                             }
-                        GeofenceStatusCodes.GEOFENCE_TOO_MANY_PENDING_INTENTS ->
+                        }
+                        GeofenceStatusCodes.GEOFENCE_TOO_MANY_PENDING_INTENTS -> {
+                            isRetryable = false
                             brazelog(W) {
                                 "Geofences not registered with Google Play Services due to GEOFENCE_TOO_MANY_PENDING_INTENTS: $statusCode"
                             }
-                        GeofenceStatusCodes.GEOFENCE_NOT_AVAILABLE ->
+                        }
+                        GeofenceStatusCodes.GEOFENCE_NOT_AVAILABLE -> {
+                            isRetryable = false
                             brazelog(W) {
                                 "Geofences not registered with Google Play Services due to GEOFENCE_NOT_AVAILABLE: $statusCode"
                             }
-                        GeofenceStatusCodes.SUCCESS ->
+                        }
+                        GeofenceStatusCodes.SUCCESS -> {
+                            isRetryable = false
                             // Since we're in the failure listener, we don't expect this status code to appear. Nonetheless, it would
                             // be good to not surface this status code as unknown
                             brazelog {
                                 "Received Geofence registration success code in failure block with Google Play Services."
                             }
+                        }
                         else -> brazelog(W) { "Geofence pending result returned unknown status code: $statusCode" }
                     }
                 } else {
                     brazelog(E, geofenceError) { "Geofence exception encountered while adding geofences." }
                 }
+                if (isRetryable && attempt < MAX_REGISTRATION_RETRIES) {
+                    val delayMs = REGISTRATION_RETRY_BASE_DELAY_MS shl attempt
+                    brazelog { "Retrying registration of ${geofenceChunk.size} geofences in $delayMs ms." }
+                    BrazeCoroutineScope.launchDelayed(delayMs) {
+                        registerGeofenceChunkWithGeofencingClient(
+                            context,
+                            geofenceChunk,
+                            geofenceRequestIntent,
+                            dataStoreProvider,
+                            attempt + 1,
+                        )
+                    }
+                }
             }
     }
 
@@ -258,7 +405,8 @@ object GooglePlayLocationUtils {
     }
 
     /**
-     * Stores the list of [BrazeGeofence] which are successfully registered.
+     * Adds the list of [BrazeGeofence] which are successfully registered to the stored registered
+     * geofences, replacing stored geofences with the same id.
      *
      * @param context
      * @param newGeofencesToRegister List of [BrazeGeofence]s to store in DataStore
@@ -269,9 +417,12 @@ object GooglePlayLocationUtils {
         dataStoreProvider: GeofenceDataStoreProvider,
     ) {
         brazelog { "Writing registered geofences: $newGeofencesToRegister to local storage." }
+        val geofencesById = LinkedHashMap<String, BrazeGeofence>()
+        retrieveRegisteredGeofencesFromLocalStorage(dataStoreProvider).associateByTo(geofencesById) { it.id }
+        newGeofencesToRegister.associateByTo(geofencesById) { it.id }
         dataStoreProvider.writeList(
             DataStoreKey.REGISTERED_GEOFENCES,
-            newGeofencesToRegister,
+            geofencesById.values.toList(),
         )
     }
 
@@ -285,23 +436,46 @@ object GooglePlayLocationUtils {
         obsoleteGeofenceIds: List<String>,
         dataStoreProvider: GeofenceDataStoreProvider,
     ) {
-        val storedRegisteredGeofences: MutableList<BrazeGeofence> =
-            retrieveRegisteredGeofencesFromLocalStorage(
-                dataStoreProvider,
-            ).toMutableList()
-        val geofencesToStore: MutableList<BrazeGeofence> = mutableListOf()
-        for (geofence in storedRegisteredGeofences) {
-            if (!obsoleteGeofenceIds.contains(geofence.id)) {
-                geofencesToStore.add(geofence)
-            }
+        val storedRegisteredGeofences = retrieveRegisteredGeofencesFromLocalStorage(dataStoreProvider)
+        val obsoleteGeofenceIdSet = obsoleteGeofenceIds.toHashSet()
+        val geofencesToStore = storedRegisteredGeofences.filter { it.id !in obsoleteGeofenceIdSet }
+        if (geofencesToStore.size == storedRegisteredGeofences.size) {
+            return
         }
         dataStoreProvider.writeList(
             DataStoreKey.REGISTERED_GEOFENCES,
             geofencesToStore,
         )
     }
+
+    private class GeofenceCandidates(
+        val index: GeofenceSpatialIndex,
+        val geofenceRequestIntent: PendingIntent,
+        val dataStoreProvider: GeofenceDataStoreProvider,
+        val selectedGeofenceIds: Set<String>,
+    )
 }
 
+/**
+ * Great-circle distance in meters between two coordinates, using the haversine formula.
+ */
+@Suppress("MagicNumber")
+internal fun getDistanceMeters(
+    latitude1: Double,
+    longitude1: Double,
+    latitude2: Double,
+    longitude2: Double,
+): Double {
+    val latitudeDelta = Math.toRadians(latitude2 - latitude1)
+    val longitudeDelta = Math.toRadians(longitude2 - longitude1)
+    val a =
+        sin(latitudeDelta / 2).pow(2) +
+            cos(Math.toRadians(latitude1)) * cos(Math.toRadians(latitude2)) * sin(longitudeDelta / 2).pow(2)
+    return 2 * EARTH_RADIUS_METERS * asin(sqrt(a))
+}
+
+private const val EARTH_RADIUS_METERS = 6_371_000.0
+
 /**
  * Creates a Google Play Location Services Geofence object from a BrazeGeofence.
  * @return A Geofence object.
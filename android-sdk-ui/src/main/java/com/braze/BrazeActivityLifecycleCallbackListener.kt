@@ -8,6 +8,7 @@ import android.os.Bundle
 import androidx.annotation.VisibleForTesting
 import com.braze.configuration.BrazeConfigurationProvider
 import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.push.BrazeNotificationChannelRegistry
 import com.braze.push.NotificationTrampolineActivity
 import com.braze.support.BrazeLogger.Priority.E
 import com.braze.support.BrazeLogger.Priority.V
@@ -50,6 +51,7 @@ open class BrazeActivityLifecycleCallbackListener @JvmOverloads constructor(
     var shouldPersistWebView: Boolean? = null
 
     private val isLoadingShouldPersistWebView = AtomicBoolean(false)
+    private val isNotificationChannelRegistryPrewarmed = AtomicBoolean(false)
     private var currentActivityRef: WeakReference<Activity>? = null
 
     init {
@@ -186,6 +188,9 @@ open class BrazeActivityLifecycleCallbackListener @JvmOverloads constructor(
             "Automatically calling lifecycle method: ensureSubscribedToInAppMessageEvents for class: ${activity.javaClass}"
         }
         BrazeInAppMessageManager.getInstance().ensureSubscribedToInAppMessageEvents(activity.applicationContext)
+        if (isNotificationChannelRegistryPrewarmed.compareAndSet(false, true)) {
+            BrazeNotificationChannelRegistry.prewarm(activity.applicationContext)
+        }
 
         // Pre-load shouldPersistWebView on IO thread to avoid blocking read in onActivityPaused
         // Uses compareAndSet to prevent race condition if onActivityCreated is called rapidly
@@ -0,0 +1,185 @@
+package com.braze.push
+
+import android.app.NotificationChannel
+import android.app.NotificationManager
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.os.Build
+import android.os.SystemClock
+import androidx.annotation.RequiresApi
+import androidx.core.app.NotificationManagerCompat
+import androidx.core.content.ContextCompat
+import com.braze.BrazeInternal
+import com.braze.Constants
+import com.braze.configuration.BrazeConfigurationProvider
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Caches the [NotificationChannel]s looked up while handling pushes, so that receiving a push doesn't
+ * need a [NotificationManager.getNotificationChannel] binder call for every channel it checks.
+ *
+ * Cached channels expire after [cacheTtlMs]. Channels that were not found are not cached, so a
+ * channel the app creates later is used by the next push. A cached channel is a snapshot, so its
+ * settings, such as its importance, can be up to [cacheTtlMs] old. On Android P+ the cache is also
+ * cleared when the system reports that notifications or a channel of the app were blocked or
+ * unblocked. Older versions have no such broadcasts. If your app deletes or recreates notification
+ * channels, or changes their settings, call [invalidate] afterwards.
+ */
+object BrazeNotificationChannelRegistry {
+    const val DEFAULT_CACHE_TTL_MS = 60_000L
+
+    /**
+     * How long, in milliseconds, a looked up channel is cached. Set to 0 to disable the cache.
+     * Defaults to [DEFAULT_CACHE_TTL_MS].
+     */
+    @JvmStatic
+    @Volatile
+    var cacheTtlMs = DEFAULT_CACHE_TTL_MS
+
+    private val channels = ConcurrentHashMap<String, CachedChannel>()
+    private val isInvalidationReceiverRegistered = AtomicBoolean(false)
+
+    private val invalidationReceiver =
+        object : BroadcastReceiver() {
+            override fun onReceive(
+                context: Context,
+                intent: Intent,
+            ) {
+                brazelog(V) { "Clearing notification channel cache after ${intent.action}" }
+                invalidate()
+            }
+        }
+
+    /**
+     * Clears every cached channel.
+     */
+    @JvmStatic
+    fun invalidate() {
+        channels.clear()
+    }
+
+    /**
+     * Starts listening for channel changes and, on Android O+, creates the default Braze notification
+     * channel if it doesn't exist yet. Runs in the background.
+     *
+     * The default channel is only created once the app can already post notifications. On Android 13+,
+     * creating the first channel of an app that targets an older API level shows the notification
+     * permission prompt, which should stay under the app's control.
+     */
+    @JvmStatic
+    fun prewarm(context: Context) {
+        val applicationContext = context.applicationContext
+        registerInvalidationReceiver(applicationContext)
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return
+        }
+        BrazeCoroutineScope.launch(Dispatchers.IO) {
+            try {
+                if (!NotificationManagerCompat.from(applicationContext).areNotificationsEnabled()) {
+                    brazelog(V) { "Notifications are not enabled. Not creating the default notification channel yet." }
+                    return@launch
+                }
+                val notificationManager =
+                    applicationContext.getSystemService(Context.NOTIFICATION_SERVICE) as NotificationManager
+                getOrCreateDefaultNotificationChannel(
+                    notificationManager,
+                    BrazeInternal.getConfigurationProvider(applicationContext),
+                )
+            } catch (e: Exception) {
+                brazelog(E, e) { "Failed to prewarm the notification channel registry." }
+            }
+        }
+    }
+
+    /**
+     * Returns the channel with [channelId], or null if it doesn't exist. Served from the cache while
+     * the cached entry is younger than [cacheTtlMs]. Missing channels are looked up again every time.
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    internal fun getNotificationChannel(
+        notificationManager: NotificationManager,
+        channelId: String,
+    ): NotificationChannel? {
+        val now = SystemClock.elapsedRealtime()
+        val cachedChannel = channels[channelId]
+        if (cachedChannel != null && now - cachedChannel.cachedAtMs < cacheTtlMs) {
+            return cachedChannel.channel
+        }
+        val channel = notificationManager.getNotificationChannel(channelId)
+        if (channel == null) {
+            channels.remove(channelId)
+        } else {
+            channels[channelId] = CachedChannel(channel, now)
+        }
+        return channel
+    }
+
+    /**
+     * Returns the channel with id [Constants.BRAZE_PUSH_DEFAULT_NOTIFICATION_CHANNEL_ID], creating it if
+     * it doesn't exist.
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    internal fun getOrCreateDefaultNotificationChannel(
+        notificationManager: NotificationManager,
+        config: BrazeConfigurationProvider?,
+    ): NotificationChannel {
+        val defaultChannelId = Constants.BRAZE_PUSH_DEFAULT_NOTIFICATION_CHANNEL_ID
+        getNotificationChannel(notificationManager, defaultChannelId)?.let { return it }
+
+        brazelog { "Braze default notification channel does not exist on device. Creating default channel." }
+        val channel =
+            NotificationChannel(
+                defaultChannelId,
+                config?.defaultNotificationChannelName,
+                NotificationManager.IMPORTANCE_DEFAULT,
+            )
+        channel.description = config?.defaultNotificationChannelDescription
+        notificationManager.createNotificationChannel(channel)
+        // The channel didn't exist, so the created channel has exactly these settings
+        channels[defaultChannelId] = CachedChannel(channel, SystemClock.elapsedRealtime())
+        return channel
+    }
+
+    /**
+     * Registers the receiver that clears the cache when the system reports block state changes.
+     * These broadcasts only exist on Android P+.
+     */
+    internal fun registerInvalidationReceiver(context: Context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P ||
+            !isInvalidationReceiverRegistered.compareAndSet(false, true)
+        ) {
+            return
+        }
+        val intentFilter =
+            IntentFilter().apply {
+                addAction(NotificationManager.ACTION_APP_BLOCK_STATE_CHANGED)
+                addAction(NotificationManager.ACTION_NOTIFICATION_CHANNEL_BLOCK_STATE_CHANGED)
+                addAction(NotificationManager.ACTION_NOTIFICATION_CHANNEL_GROUP_BLOCK_STATE_CHANGED)
+            }
+        try {
+            ContextCompat.registerReceiver(
+                context.applicationContext,
+                invalidationReceiver,
+                intentFilter,
+                ContextCompat.RECEIVER_NOT_EXPORTED,
+            )
+        } catch (e: Exception) {
+            brazelog(E, e) { "Failed to register notification channel change receiver." }
+            isInvalidationReceiverRegistered.set(false)
+        }
+    }
+
+    private class CachedChannel(
+        val channel: NotificationChannel,
+        val cachedAtMs: Long,
+    )
+}
@@ -10,7 +10,6 @@ import com.braze.models.push.BrazeNotificationPayload
 import com.braze.push.BrazeNotificationActionUtils.addNotificationActions
 import com.braze.push.BrazeNotificationStyleFactory.Companion.setStyleIfSupported
 import com.braze.push.BrazeNotificationUtils.getOrCreateNotificationChannelId
-import com.braze.push.BrazeNotificationUtils.prefetchBitmapsIfNewlyReceivedStoryPush
 import com.braze.push.BrazeNotificationUtils.setAccentColorIfPresentAndSupported
 import com.braze.push.BrazeNotificationUtils.setCategoryIfPresentAndSupported
 import com.braze.push.BrazeNotificationUtils.setContentIfPresent
@@ -121,16 +120,28 @@ open class BrazeNotificationFactory : IBrazeNotificationFactory {
                 brazelog { "BrazeNotificationPayload has null app configuration provider. Not creating notification" }
                 return null
             }
+
+            // Download every image of the notification in parallel under a shared deadline. If this
+            // notification is a push story, this also makes a best effort to preload every page's image into the cache.
+            BrazeNotificationImageFetcher.fetchImages(payload)
+            try {
+                return buildNotification(context, brazeConfigurationProvider, payload)
+            } finally {
+                BrazeNotificationImageFetcher.clearImages(payload)
+            }
+        }
+
+        private fun buildNotification(
+            context: Context,
+            brazeConfigurationProvider: BrazeConfigurationProvider,
+            payload: BrazeNotificationPayload,
+        ): NotificationCompat.Builder {
             val notificationExtras = payload.notificationExtras
 
             // We build up the notification by setting values if they are present in the extras and supported
             // on the device. The notification building is currently order/combination independent, but
             // the addition of new RemoteViews options could mean that some methods conflict/overwrite. For clarity
             // we build the notification up in the order that each feature was supported.
-
-            // If this notification is a push story,
-            // make a best effort to preload bitmap images into the cache.
-            prefetchBitmapsIfNewlyReceivedStoryPush(payload)
             val notificationChannelId = getOrCreateNotificationChannelId(payload)
             val notificationBuilder =
                 NotificationCompat
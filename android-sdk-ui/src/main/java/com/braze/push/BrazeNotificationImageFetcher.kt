@@ -0,0 +1,215 @@
+package com.braze.push
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.os.Build
+import android.os.Bundle
+import com.braze.Braze
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.enums.BrazeViewBounds
+import com.braze.models.push.BrazeNotificationPayload
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.Priority.W
+import com.braze.support.BrazeLogger.brazelog
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeoutOrNull
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Downloads every image of a push notification in parallel, under one shared deadline, before the
+ * notification is built.
+ *
+ * [BrazeNotificationFactory.populateNotificationBuilder] calls [fetchImages] once, and the builder
+ * steps then read the results through [getBitmap] instead of downloading each image one after the
+ * other. Images that failed or didn't download before the deadline are reported as missing, so the
+ * notification degrades to its text-only form instead of waiting longer.
+ */
+object BrazeNotificationImageFetcher {
+    const val DEFAULT_FETCH_DEADLINE_MS = 7_000L
+
+    /**
+     * The maximum total time, in milliseconds, spent downloading the images of a single notification.
+     * Defaults to [DEFAULT_FETCH_DEADLINE_MS].
+     */
+    @JvmStatic
+    @Volatile
+    var fetchDeadlineMs = DEFAULT_FETCH_DEADLINE_MS
+
+    /** Keyed by identity since payloads are mutable. Entries are removed in [clearImages]. */
+    private val fetchedImages = IdentityHashMap<BrazeNotificationPayload, FetchedImages>()
+
+    /**
+     * Downloads the large icon, the big picture or inline image, and the push story images of
+     * [payload] in parallel. Blocks until all images are downloaded or [fetchDeadlineMs] has passed.
+     *
+     * For a newly received push story, the images of every page are downloaded into the image
+     * loader's cache, see [BrazeNotificationUtils.prefetchBitmapsIfNewlyReceivedStoryPush].
+     */
+    internal fun fetchImages(payload: BrazeNotificationPayload) {
+        val context = payload.context ?: return
+        val requests = getImageRequests(payload)
+        if (payload.isPushStory) {
+            payload.isNewlyReceivedPushStory = false
+        }
+        if (requests.isEmpty()) {
+            return
+        }
+        val images = FetchedImages(requests.map { it.key }.toSet())
+        synchronized(fetchedImages) {
+            fetchedImages[payload] = images
+        }
+        downloadInParallel(context, requests, images)
+    }
+
+    /**
+     * Downloads the images of every page of a newly received push story in parallel, so they are in
+     * the image loader's cache when the user pages through the story.
+     */
+    internal fun prefetchStoryImages(payload: BrazeNotificationPayload) {
+        val context = payload.context ?: return
+        if (!payload.isPushStory || !payload.isNewlyReceivedPushStory) return
+        val requests =
+            payload.pushStoryPages
+                .mapNotNull { it.bitmapUrl }
+                .distinct()
+                .map { ImageRequest(ImageKey(it, BrazeViewBounds.NOTIFICATION_ONE_IMAGE_STORY), payload.brazeExtras) }
+        downloadInParallel(context, requests, FetchedImages(emptySet()))
+        payload.isNewlyReceivedPushStory = false
+    }
+
+    private fun downloadInParallel(
+        context: Context,
+        requests: List<ImageRequest>,
+        images: FetchedImages,
+    ) {
+        val startTime = System.currentTimeMillis()
+        // The downloads are not children of this call, so the ones still running at the deadline can
+        // finish in the background and populate the image loader's cache without blocking this thread.
+        val downloads =
+            requests.map { request ->
+                BrazeCoroutineScope.async(Dispatchers.IO) {
+                    downloadBitmap(context, request)?.let { images.bitmaps[request.key] = it }
+                }
+            }
+        val isComplete =
+            runBlocking {
+                withTimeoutOrNull(fetchDeadlineMs) { downloads.awaitAll() } != null
+            }
+        val elapsedTime = System.currentTimeMillis() - startTime
+        if (isComplete) {
+            brazelog(V) { "Fetched ${images.bitmaps.size} of ${requests.size} notification images in $elapsedTime ms." }
+        } else {
+            brazelog(W) {
+                "Notification image deadline of $fetchDeadlineMs ms passed. Fetched ${images.bitmaps.size} of " +
+                    "${requests.size} images. The missing images will not be shown."
+            }
+        }
+    }
+
+    /**
+     * Returns the bitmap for [imageUrl] downloaded by [fetchImages]. If [fetchImages] didn't request
+     * this image for [payload], the image is downloaded now.
+     *
+     * @return The bitmap, or null if the download failed or didn't finish before the deadline.
+     */
+    internal fun getBitmap(
+        context: Context,
+        payload: BrazeNotificationPayload,
+        extras: Bundle?,
+        imageUrl: String,
+        viewBounds: BrazeViewBounds,
+    ): Bitmap? {
+        val key = ImageKey(imageUrl, viewBounds)
+        val images = synchronized(fetchedImages) { fetchedImages[payload] }
+        if (images != null && images.requestedKeys.contains(key)) {
+            return images.bitmaps[key]
+        }
+        return downloadBitmap(context, ImageRequest(key, extras))
+    }
+
+    /**
+     * Releases the bitmaps downloaded for [payload].
+     */
+    internal fun clearImages(payload: BrazeNotificationPayload) {
+        synchronized(fetchedImages) {
+            fetchedImages.remove(payload)
+        }
+    }
+
+    /**
+     * Returns the images the notification builder steps will request, with the same extras and view
+     * bounds they use.
+     */
+    private fun getImageRequests(payload: BrazeNotificationPayload): List<ImageRequest> {
+        val requests = mutableListOf<ImageRequest>()
+        if (payload.isPushStory) {
+            val currentPageUrl = payload.pushStoryPages.getOrNull(payload.pushStoryPageIndex)?.bitmapUrl
+            if (!currentPageUrl.isNullOrBlank()) {
+                requests.add(
+                    ImageRequest(ImageKey(currentPageUrl, BrazeViewBounds.NOTIFICATION_ONE_IMAGE_STORY), payload.notificationExtras),
+                )
+            }
+            if (payload.isNewlyReceivedPushStory) {
+                payload.pushStoryPages
+                    .mapNotNull { it.bitmapUrl }
+                    .distinct()
+                    .filter { it != currentPageUrl }
+                    .forEach {
+                        requests.add(ImageRequest(ImageKey(it, BrazeViewBounds.NOTIFICATION_ONE_IMAGE_STORY), payload.brazeExtras))
+                    }
+            }
+            return requests
+        }
+
+        payload.largeIcon?.let {
+            requests.add(ImageRequest(ImageKey(it, BrazeViewBounds.NOTIFICATION_LARGE_ICON), null))
+        }
+        val isConversationalPush = payload.isConversationalPush && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N_MR1
+        val bigImageUrl = payload.bigImageUrl
+        if (!isConversationalPush && !bigImageUrl.isNullOrBlank()) {
+            val viewBounds =
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && payload.isInlineImagePush) {
+                    BrazeViewBounds.NOTIFICATION_INLINE_PUSH_IMAGE
+                } else {
+                    BrazeViewBounds.NOTIFICATION_EXPANDED_IMAGE
+                }
+            requests.add(ImageRequest(ImageKey(bigImageUrl, viewBounds), payload.notificationExtras))
+        }
+        return requests
+    }
+
+    private fun downloadBitmap(
+        context: Context,
+        request: ImageRequest,
+    ): Bitmap? =
+        try {
+            Braze
+                .getInstance(context)
+                .imageLoader
+                .getPushBitmapFromUrl(context, request.extras, request.key.imageUrl, request.key.viewBounds)
+        } catch (e: Exception) {
+            brazelog(E, e) { "Failed to download notification image at ${request.key.imageUrl}" }
+            null
+        }
+
+    private data class ImageKey(
+        val imageUrl: String,
+        val viewBounds: BrazeViewBounds,
+    )
+
+    private class ImageRequest(
+        val key: ImageKey,
+        val extras: Bundle?,
+    )
+
+    private class FetchedImages(
+        val requestedKeys: Set<ImageKey>,
+    ) {
+        val bitmaps = ConcurrentHashMap<ImageKey, Bitmap>()
+    }
+}
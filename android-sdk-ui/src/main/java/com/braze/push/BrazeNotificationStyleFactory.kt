@@ -14,7 +14,6 @@ import androidx.annotation.RequiresApi
 import androidx.annotation.VisibleForTesting
 import androidx.core.app.NotificationCompat
 import androidx.core.graphics.scale
-import com.braze.Braze
 import com.braze.BrazeInternal
 import com.braze.Constants
 import com.braze.IBrazeDeeplinkHandler.IntentFlagPurpose
@@ -230,15 +229,13 @@ open class BrazeNotificationStyleFactory {
 
             // Set the image
             val largeNotificationBitmap =
-                Braze
-                    .getInstance(context)
-                    .imageLoader
-                    .getPushBitmapFromUrl(
-                        context,
-                        notificationExtras,
-                        imageUrl,
-                        BrazeViewBounds.NOTIFICATION_INLINE_PUSH_IMAGE,
-                    )
+                BrazeNotificationImageFetcher.getBitmap(
+                    context,
+                    payload,
+                    notificationExtras,
+                    imageUrl,
+                    BrazeViewBounds.NOTIFICATION_INLINE_PUSH_IMAGE,
+                )
             if (largeNotificationBitmap == null) {
                 brazelog { "Inline Image Push failed to get image bitmap" }
                 return null
@@ -346,15 +343,13 @@ open class BrazeNotificationStyleFactory {
             }
             val notificationExtras = payload.notificationExtras
             var imageBitmap =
-                Braze
-                    .getInstance(context)
-                    .imageLoader
-                    .getPushBitmapFromUrl(
-                        context,
-                        notificationExtras,
-                        imageUrl,
-                        BrazeViewBounds.NOTIFICATION_EXPANDED_IMAGE,
-                    )
+                BrazeNotificationImageFetcher.getBitmap(
+                    context,
+                    payload,
+                    notificationExtras,
+                    imageUrl,
+                    BrazeViewBounds.NOTIFICATION_EXPANDED_IMAGE,
+                )
             if (imageBitmap == null) {
                 brazelog {
                     "Failed to download image bitmap for big picture notification style. Url: $imageUrl"
@@ -518,15 +513,13 @@ open class BrazeNotificationStyleFactory {
 
             // Set up bitmap url
             val largeNotificationBitmap =
-                Braze
-                    .getInstance(context)
-                    .imageLoader
-                    .getPushBitmapFromUrl(
-                        context,
-                        notificationExtras,
-                        bitmapUrl,
-                        BrazeViewBounds.NOTIFICATION_ONE_IMAGE_STORY,
-                    )
+                BrazeNotificationImageFetcher.getBitmap(
+                    context,
+                    payload,
+                    notificationExtras,
+                    bitmapUrl,
+                    BrazeViewBounds.NOTIFICATION_ONE_IMAGE_STORY,
+                )
                     ?: return false
             view.setImageViewBitmap(R.id.com_braze_story_image_view, largeNotificationBitmap)
 
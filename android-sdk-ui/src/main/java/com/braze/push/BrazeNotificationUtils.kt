@@ -463,23 +463,12 @@ object BrazeNotificationUtils {
 
     /**
      * Checks that the notification is a story that has only just been received. If so, each
-     * image within the story is put in the Braze image loader's cache.
+     * image within the story is put in the Braze image loader's cache. The images are downloaded
+     * in parallel, see [BrazeNotificationImageFetcher.prefetchStoryImages].
      */
     @JvmStatic
     fun prefetchBitmapsIfNewlyReceivedStoryPush(payload: BrazeNotificationPayload) {
-        val context = payload.context ?: return
-        if (!payload.isPushStory || !payload.isNewlyReceivedPushStory) return
-
-        payload.pushStoryPages
-            .mapNotNull { it.bitmapUrl }
-            .forEach {
-                brazelog(V) { "Pre-fetching bitmap at URL: $it" }
-                Braze
-                    .getInstance(context)
-                    .imageLoader
-                    .getPushBitmapFromUrl(context, payload.brazeExtras, it, BrazeViewBounds.NOTIFICATION_ONE_IMAGE_STORY)
-            }
-        payload.isNewlyReceivedPushStory = false
+        BrazeNotificationImageFetcher.prefetchStoryImages(payload)
     }
 
     @JvmStatic
@@ -622,15 +611,13 @@ object BrazeNotificationUtils {
             brazelog { "Setting large icon for notification" }
             payload.largeIcon?.let { largeIconUrl ->
                 val largeNotificationBitmap =
-                    Braze
-                        .getInstance(context)
-                        .imageLoader
-                        .getPushBitmapFromUrl(
-                            context,
-                            extras = null,
-                            imageUrl = largeIconUrl,
-                            BrazeViewBounds.NOTIFICATION_LARGE_ICON,
-                        )
+                    BrazeNotificationImageFetcher.getBitmap(
+                        context,
+                        payload,
+                        extras = null,
+                        imageUrl = largeIconUrl,
+                        BrazeViewBounds.NOTIFICATION_LARGE_ICON,
+                    )
                 if (largeNotificationBitmap != null) {
                     notificationBuilder.setLargeIcon(largeNotificationBitmap)
                     return true
@@ -963,10 +950,11 @@ object BrazeNotificationUtils {
         val context = payload.context
         val config = payload.configurationProvider
         val notificationManager = context?.getSystemService(Context.NOTIFICATION_SERVICE) as NotificationManager
+        context?.let { BrazeNotificationChannelRegistry.registerInvalidationReceiver(it) }
 
         // First try to get the channel from the extras
         if (channelIdFromExtras != null) {
-            if (notificationManager.getNotificationChannel(channelIdFromExtras) != null) {
+            if (BrazeNotificationChannelRegistry.getNotificationChannel(notificationManager, channelIdFromExtras) != null) {
                 brazelog { "Found notification channel in extras with id: $channelIdFromExtras" }
                 return channelIdFromExtras
             } else {
@@ -974,19 +962,8 @@ object BrazeNotificationUtils {
             }
         }
 
-        // If we get here, we need to use the default channel
-        if (notificationManager.getNotificationChannel(defaultChannelId) == null) {
-            // If the default doesn't exist, create it now
-            brazelog { "Braze default notification channel does not exist on device. Creating default channel." }
-            val channel =
-                NotificationChannel(
-                    defaultChannelId,
-                    config?.defaultNotificationChannelName,
-                    NotificationManager.IMPORTANCE_DEFAULT,
-                )
-            channel.description = config?.defaultNotificationChannelDescription
-            notificationManager.createNotificationChannel(channel)
-        }
+        // If we get here, we need to use the default channel. If the default doesn't exist, it's created now.
+        BrazeNotificationChannelRegistry.getOrCreateDefaultNotificationChannel(notificationManager, config)
         return defaultChannelId
     }
 
@@ -1108,6 +1085,9 @@ object BrazeNotificationUtils {
      * exist on the device, then null is returned.
      *
      * This method does not create a notification channel if a valid channel cannot be found.
+     * Channels are looked up through [BrazeNotificationChannelRegistry], so the returned channel may be
+     * a cached snapshot whose settings, such as its importance, are up to
+     * [BrazeNotificationChannelRegistry.cacheTtlMs] old.
      *
      * @param notificationManager The notification manager to use to get the notification channel.
      * @param notificationExtras The extras that will be checked for a valid notification channel id.
@@ -1125,7 +1105,7 @@ object BrazeNotificationUtils {
         }
         val channelIdFromExtras = notificationExtras.getString(Constants.BRAZE_PUSH_NOTIFICATION_CHANNEL_ID_KEY, null)
         if (!channelIdFromExtras.isNullOrBlank()) {
-            val notificationChannel = notificationManager.getNotificationChannel(channelIdFromExtras)
+            val notificationChannel = BrazeNotificationChannelRegistry.getNotificationChannel(notificationManager, channelIdFromExtras)
             if (notificationChannel != null) {
                 brazelog { "Found notification channel in extras with id: $channelIdFromExtras" }
                 return notificationChannel
@@ -1133,7 +1113,11 @@ object BrazeNotificationUtils {
                 brazelog { "Notification channel from extras is invalid, no channel found with id: $channelIdFromExtras" }
             }
         }
-        val defaultNotificationChannel = notificationManager.getNotificationChannel(Constants.BRAZE_PUSH_DEFAULT_NOTIFICATION_CHANNEL_ID)
+        val defaultNotificationChannel =
+            BrazeNotificationChannelRegistry.getNotificationChannel(
+                notificationManager,
+                Constants.BRAZE_PUSH_DEFAULT_NOTIFICATION_CHANNEL_ID,
+            )
         if (defaultNotificationChannel != null) {
             return defaultNotificationChannel
         } else {
@@ -84,6 +84,38 @@ open class BrazePushReceiver : BroadcastReceiver() {
          */
         const val HMS_PUSH_SERVICE_ROUTING_ACTION = "hms_push_service_routing_action"
 
+        const val DEFAULT_PUSH_COALESCING_WINDOW_MS = 250L
+        const val DEFAULT_MAX_PUSH_BATCH_SIZE = 25
+
+        /**
+         * When true, received push payloads are not each handled on their own coroutine. Instead, the
+         * payloads received within [pushCoalescingWindowMs] of each other are handled one after the other as
+         * a batch. A batch requests at most one feature flag refresh and one banner refresh, and skips
+         * duplicate push ids without checking the stored push ids again. Only applies to intents handled
+         * through [handleReceivedIntent] on a background thread. Defaults to false.
+         */
+        @JvmStatic
+        @Volatile
+        var isPushCoalescingEnabled = false
+
+        /**
+         * How long, in milliseconds, received push payloads are collected into a batch when
+         * [isPushCoalescingEnabled] is true. Defaults to [DEFAULT_PUSH_COALESCING_WINDOW_MS].
+         */
+        @JvmStatic
+        @Volatile
+        var pushCoalescingWindowMs = DEFAULT_PUSH_COALESCING_WINDOW_MS
+
+        /**
+         * The maximum number of push payloads handled in one batch when [isPushCoalescingEnabled] is true.
+         * Defaults to [DEFAULT_MAX_PUSH_BATCH_SIZE].
+         */
+        @JvmStatic
+        @Volatile
+        var maxPushBatchSize = DEFAULT_MAX_PUSH_BATCH_SIZE
+
+        private val pushIngestionQueue = PushIngestionQueue(::handlePushBatch)
+
         private fun handlePush(
             context: Context,
             intent: Intent,
@@ -174,7 +206,9 @@ open class BrazePushReceiver : BroadcastReceiver() {
             intent: Intent,
             runOnThread: Boolean = true,
         ) {
-            if (runOnThread) {
+            if (runOnThread && isPushCoalescingEnabled && intent.isReceivedPushPayload()) {
+                pushIngestionQueue.enqueue(context, intent, pushCoalescingWindowMs, maxPushBatchSize.coerceAtLeast(1))
+            } else if (runOnThread) {
                 // Don't pass an Activity context into a background thread
                 BrazeCoroutineScope.launch {
                     handlePush(context.applicationContext, intent)
@@ -185,6 +219,37 @@ open class BrazePushReceiver : BroadcastReceiver() {
             }
         }
 
+        private fun Intent.isReceivedPushPayload() =
+            when (action) {
+                FIREBASE_MESSAGING_SERVICE_ROUTING_ACTION,
+                HMS_PUSH_SERVICE_ROUTING_ACTION,
+                ADM_RECEIVE_INTENT_ACTION,
+                -> true
+                else -> false
+            }
+
+        private fun handlePushBatch(
+            applicationContext: Context,
+            intents: List<Intent>,
+        ) {
+            val batch = PushBatch(applicationContext)
+            try {
+                applyPendingRuntimeConfiguration(applicationContext)
+                intents.forEach { intent ->
+                    try {
+                        brazelog(I) { "Received broadcast message. Message: $intent" }
+                        handlePushNotificationPayload(applicationContext, intent, batch)
+                    } catch (e: Exception) {
+                        brazelog(E, e) {
+                            "Caught exception while handling a batched push notification. Intent: $intent"
+                        }
+                    }
+                }
+            } finally {
+                batch.requestRefreshes()
+            }
+        }
+
         /**
          * Handles an ADM registration event if ADM messaging registration is enabled in the configuration.
          *
@@ -263,10 +328,20 @@ open class BrazePushReceiver : BroadcastReceiver() {
          */
         @JvmStatic
         @VisibleForTesting
-        @Suppress("LongMethod", "ComplexMethod", "ReturnCount")
         fun handlePushNotificationPayload(
             context: Context,
             intent: Intent,
+        ): Boolean = handlePushNotificationPayload(context, intent, null)
+
+        /**
+         * See [handlePushNotificationPayload]. When [batch] is not null, refreshes are deferred to the
+         * end of the batch and push ids already seen in the batch are skipped.
+         */
+        @Suppress("LongMethod", "ComplexMethod", "ReturnCount")
+        private fun handlePushNotificationPayload(
+            context: Context,
+            intent: Intent,
+            batch: PushBatch?,
         ): Boolean {
             when {
                 !intent.isBrazePushMessage() -> {
@@ -295,7 +370,7 @@ open class BrazePushReceiver : BroadcastReceiver() {
                 )
             }
 
-            val appConfigurationProvider = BrazeInternal.getConfigurationProvider(context)
+            val appConfigurationProvider = batch?.configurationProvider ?: BrazeInternal.getConfigurationProvider(context)
             val payload = createPayload(context, appConfigurationProvider, notificationExtras, brazeExtras)
 
             if (payload.isUninstallTrackingPush) {
@@ -309,6 +384,10 @@ open class BrazePushReceiver : BroadcastReceiver() {
             }
 
             payload.pushUniqueId?.let {
+                if (batch != null && !batch.markPushIdSeen(it)) {
+                    brazelog(I) { "Push with identifier '$it' was already seen in this batch. Not displaying or forwarding push." }
+                    return false
+                }
                 if (!BrazeInternal.validateAndStorePushId(context, it)) {
                     brazelog(I) { "Push with identifier '$it' has already been seen. Not displaying or forwarding push." }
                     return false
@@ -318,8 +397,12 @@ open class BrazePushReceiver : BroadcastReceiver() {
             // Parse the notification for any associated ContentCard
             BrazeNotificationUtils.handleContentCardsSerializedCardIfPresent(payload)
 
-            refreshFeatureFlagsIfAppropriate(payload)
-            refreshBannersIfAppropriate(payload)
+            if (batch != null) {
+                batch.deferRefreshes(payload)
+            } else {
+                refreshFeatureFlagsIfAppropriate(payload)
+                refreshBannersIfAppropriate(payload)
+            }
 
             if (payload.shouldFetchTestTriggers &&
                 appConfigurationProvider.isInAppMessageTestPushEagerDisplayEnabled &&
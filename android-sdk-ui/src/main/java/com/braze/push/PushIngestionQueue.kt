@@ -0,0 +1,95 @@
+package com.braze.push
+
+import android.content.Context
+import android.content.Intent
+import com.braze.BrazeInternal
+import com.braze.configuration.BrazeConfigurationProvider
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.models.push.BrazeNotificationPayload
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Collects received push intents for a short window and hands them to [handleBatch] together.
+ * Batches are handled one at a time, in the order the intents were received.
+ */
+internal class PushIngestionQueue(
+    private val handleBatch: (Context, List<Intent>) -> Unit,
+) {
+    private val pendingIntents = ConcurrentLinkedQueue<Intent>()
+    private val isDrainScheduled = AtomicBoolean(false)
+    private val batchMutex = Mutex()
+
+    /**
+     * Adds [intent] to the queue. The queue is drained [windowMs] after the first intent of a batch
+     * was added.
+     */
+    fun enqueue(
+        context: Context,
+        intent: Intent,
+        windowMs: Long,
+        maxBatchSize: Int,
+    ) {
+        pendingIntents.add(intent)
+        if (isDrainScheduled.compareAndSet(false, true)) {
+            val applicationContext = context.applicationContext
+            BrazeCoroutineScope.launchDelayed(windowMs) {
+                batchMutex.withLock {
+                    // Cleared before polling so that intents added from now on schedule the next drain
+                    isDrainScheduled.set(false)
+                    while (true) {
+                        val batch = generateSequence { pendingIntents.poll() }.take(maxBatchSize).toList()
+                        if (batch.isEmpty()) {
+                            break
+                        }
+                        brazelog(V) { "Handling batch of ${batch.size} received push intents." }
+                        handleBatch(applicationContext, batch)
+                    }
+                }
+            }
+        }
+    }
+}
+
+/**
+ * State shared by the push payloads handled in one batch of a [PushIngestionQueue].
+ */
+internal class PushBatch(
+    context: Context,
+) {
+    private val seenPushIds = mutableSetOf<String>()
+    private var featureFlagRefreshPayload: BrazeNotificationPayload? = null
+    private var bannersRefreshPayload: BrazeNotificationPayload? = null
+
+    val configurationProvider: BrazeConfigurationProvider by lazy {
+        BrazeInternal.getConfigurationProvider(context)
+    }
+
+    /**
+     * Returns false if a push with [pushId] was already handled in this batch, without validating
+     * the id against the stored push ids again.
+     */
+    fun markPushIdSeen(pushId: String): Boolean = seenPushIds.add(pushId)
+
+    /**
+     * Records the refreshes [payload] asks for. They are requested once for the whole batch in
+     * [requestRefreshes].
+     */
+    fun deferRefreshes(payload: BrazeNotificationPayload) {
+        if (payload.shouldRefreshFeatureFlags && featureFlagRefreshPayload == null) {
+            featureFlagRefreshPayload = payload
+        }
+        if (payload.shouldRefreshBanners && bannersRefreshPayload == null) {
+            bannersRefreshPayload = payload
+        }
+    }
+
+    fun requestRefreshes() {
+        featureFlagRefreshPayload?.let { BrazeNotificationUtils.refreshFeatureFlagsIfAppropriate(it) }
+        bannersRefreshPayload?.let { BrazeNotificationUtils.refreshBannersIfAppropriate(it) }
+    }
+}
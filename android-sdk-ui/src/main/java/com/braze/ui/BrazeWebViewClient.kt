@@ -21,11 +21,11 @@ import com.braze.support.BrazeLogger.Priority.I
 import com.braze.support.BrazeLogger.Priority.V
 import com.braze.support.BrazeLogger.brazelog
 import com.braze.support.WebContentUtils
-import com.braze.support.getAssetFileStringContents
 import com.braze.ui.banners.listeners.IBannerWebViewClientListener
 import com.braze.ui.inappmessage.BrazeInAppMessageManager
 import com.braze.ui.inappmessage.listeners.IInAppMessageWebViewClientListener
 import com.braze.ui.inappmessage.listeners.IWebViewClientStateListener
+import com.braze.ui.support.BridgeJavascriptCache
 import com.braze.ui.support.getQueryParameters
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
@@ -122,9 +122,12 @@ open class BrazeWebViewClient(
     }
 
     private fun appendBridgeJavascript(view: WebView) {
+        if (BridgeJavascriptCache.isInjectedAtDocumentStart(view)) {
+            return
+        }
         val javascriptString: String =
             try {
-                context.assets.getAssetFileStringContents(BRIDGE_JS_FILE)
+                BridgeJavascriptCache.getBridgeJavascript(context)
             } catch (e: Exception) {
                 // Fail instead of presenting a broken WebView
                 if (type == Type.IN_APP_MESSAGE) {
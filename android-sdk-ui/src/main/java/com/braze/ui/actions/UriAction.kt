@@ -1,12 +1,9 @@
 package com.braze.ui.actions
 
-import android.annotation.SuppressLint
 import android.content.ActivityNotFoundException
 import android.content.Context
 import android.content.Intent
-import android.content.pm.PackageManager
 import android.net.Uri
-import android.os.Build
 import android.os.Bundle
 import androidx.annotation.VisibleForTesting
 import com.braze.BrazeInternal
@@ -25,6 +22,7 @@ import com.braze.ui.BrazeDeeplinkHandler
 import com.braze.ui.BrazeWebViewActivity
 import com.braze.ui.actions.brazeactions.BrazeActionParser
 import com.braze.ui.actions.brazeactions.BrazeActionParser.isBrazeActionUri
+import com.braze.ui.support.ActivityResolutionCache
 import com.braze.ui.support.getMainActivityIntent
 import com.braze.ui.support.isActivityRegisteredInManifest
 
@@ -229,7 +227,6 @@ open class UriAction : IAction {
         return webViewActivityIntent
     }
 
-    @SuppressLint("QueryPermissionsNeeded")
     protected fun getActionViewIntent(
         context: Context,
         uri: Uri,
@@ -242,20 +239,10 @@ open class UriAction : IAction {
         }
 
         // If the current app can already handle the intent, default to using it
-        val resolveInfos =
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-                context.packageManager.queryIntentActivities(intent, PackageManager.ResolveInfoFlags.of(0))
-            } else {
-                context.packageManager.queryIntentActivities(intent, 0)
-            }
-        if (resolveInfos.size > 1) {
-            for (resolveInfo in resolveInfos) {
-                if (resolveInfo.activityInfo.packageName == context.packageName) {
-                    brazelog { "Setting deep link intent package to ${resolveInfo.activityInfo.packageName}." }
-                    intent.setPackage(resolveInfo.activityInfo.packageName)
-                    break
-                }
-            }
+        val packageName = ActivityResolutionCache.getDeepLinkPackage(context, uri, intent)
+        if (packageName != null) {
+            brazelog { "Setting deep link intent package to $packageName." }
+            intent.setPackage(packageName)
         }
         return intent
     }
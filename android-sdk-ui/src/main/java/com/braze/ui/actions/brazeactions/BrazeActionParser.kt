@@ -2,7 +2,7 @@ package com.braze.ui.actions.brazeactions
 
 import android.content.Context
 import android.net.Uri
-import android.util.Base64
+import android.util.LruCache
 import com.braze.enums.Channel
 import com.braze.support.BrazeLogger.Priority.E
 import com.braze.support.BrazeLogger.Priority.I
@@ -28,9 +28,16 @@ import org.json.JSONObject
 
 object BrazeActionParser {
     private const val BRAZE_ACTIONS_V1 = "v1"
+    private const val MAX_CACHED_ACTIONS = 64
     internal const val TYPE = "type"
     internal const val BRAZE_ACTIONS_SCHEME = "brazeActions"
 
+    /**
+     * Decoded actions by uri. Content Cards and in-app messages validate the same actions on every
+     * update and display, so each uri is only decoded once.
+     */
+    private val parsedActionCache = LruCache<String, ParsedBrazeAction>(MAX_CACHED_ACTIONS)
+
     internal enum class ActionType(
         val key: String,
         val impl: IBrazeActionStep,
@@ -70,8 +77,9 @@ object BrazeActionParser {
     ) {
         brazelog(V) { "Attempting to parse Braze Action with channel $channel and uri:\n'$uri'" }
         try {
-            val components = uri.getBrazeActionVersionAndJson()
-            if (components == null) {
+            val parsedAction = getParsedAction(uri)
+            val rootStep = parsedAction.rootStep
+            if (parsedAction.version == null || rootStep == null) {
                 brazelog(I) {
                     "Failed to decode Braze Action into both " +
                         "version and json components. Doing nothing."
@@ -79,7 +87,7 @@ object BrazeActionParser {
                 return
             }
 
-            val (version, json) = components
+            val version = parsedAction.version
             if (version != BRAZE_ACTIONS_V1) {
                 brazelog {
                     "Braze Actions version $version is " +
@@ -88,7 +96,7 @@ object BrazeActionParser {
                 return
             }
 
-            parse(context, StepData(json, channel))
+            runStep(context, rootStep, channel)
         } catch (e: Exception) {
             brazelog(E, e) { "Failed to parse uri as a Braze Action.\n'$uri'" }
         }
@@ -117,37 +125,122 @@ object BrazeActionParser {
         }
     }
 
+    /**
+     * Runs an already validated step tree from [getParsedAction].
+     */
+    @JvmSynthetic
+    internal fun runStep(
+        context: Context,
+        step: BrazeActionStepNode,
+        channel: Channel,
+    ) {
+        when (step.type) {
+            ActionType.INVALID -> return
+            ActionType.CONTAINER -> step.children.forEach { runStep(context, it, channel) }
+            else -> {
+                // Steps get their own copy of the json, since the cached step tree is reused
+                val data = StepData(JSONObject(step.data.srcJson.toString()), channel)
+                try {
+                    brazelog(V) {
+                        "Performing Braze Action type ${step.type} with data $data"
+                    }
+                    step.type.impl.run(context, data)
+                } catch (e: Exception) {
+                    brazelog(E, e) { "Failed to run with data $data" }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the decoded and validated form of the Braze Action [uri]. Results are cached by uri.
+     * Assumes that the [Uri] is a valid Braze Action.
+     *
+     * @see isBrazeActionUri
+     */
+    @JvmSynthetic
+    internal fun getParsedAction(uri: Uri): ParsedBrazeAction {
+        val key = uri.toString()
+        parsedActionCache.get(key)?.let { return it }
+        val components = uri.getBrazeActionVersionAndJson()
+        val parsedAction =
+            if (components == null) {
+                ParsedBrazeAction(null, null)
+            } else {
+                ParsedBrazeAction(components.first, ParsedBrazeAction.buildStepTree(components.second))
+            }
+        parsedActionCache.put(key, parsedAction)
+        return parsedAction
+    }
+
     /**
      * Parses an encoded URL-SAFE BASE64 input to back to UTF-16. Note
      * that the base64 input is skip encoded into 8 bits due to
      * fit Base64 (UTF-8).
      */
     @JvmSynthetic
-    internal fun parseEncodedActionToJson(action: String): JSONObject {
-        // Convert the base64 input into an array of 8-bit words
-        val bytes8: ByteArray = Base64.decode(action, Base64.URL_SAFE)
-
-        // Combine every pair of 8-bit words into a single 16-bit word
-        val bit16 = IntArray(bytes8.size / 2)
-        for (i in bytes8.indices step 2) {
-            @Suppress("MagicNumber")
-            val lowerByte = bytes8[i].toInt() and 0xFF
-
-            @Suppress("UnnecessaryParentheses", "MagicNumber")
-            val upperByte = (bytes8[i + 1].toInt() and 0xFF) shl 8
-            val combined = upperByte or lowerByte
-            bit16[i / 2] = combined
-        }
+    internal fun parseEncodedActionToJson(action: String): JSONObject = JSONObject(decodeUtf16LeBase64(action))
 
-        // Convert each 16-bit word into a UTF-16 character
-        // and combine each into a String
-        val result = StringBuilder()
-        for (code in bit16) {
-            result.append(Char(code))
+    /**
+     * Decodes URL-SAFE BASE64 [encoded] text whose bytes are UTF-16LE code units, in a single pass
+     * straight into a [CharArray]. Whitespace and trailing padding are ignored.
+     *
+     * @throws IllegalArgumentException if [encoded] contains characters outside of the URL-SAFE BASE64
+     * alphabet, is truncated, or decodes to an odd number of bytes.
+     */
+    @JvmSynthetic
+    @Suppress("MagicNumber")
+    internal fun decodeUtf16LeBase64(encoded: String): String {
+        // Every 4 symbols are 3 bytes, and every 2 bytes are 1 char
+        val chars = CharArray(encoded.length * 3 / 8 + 1)
+        var charCount = 0
+        var bits = 0
+        var bitCount = 0
+        var symbolCount = 0
+        var lowerByte = -1
+        var isPadding = false
+        for (symbol in encoded) {
+            if (symbol == '=') {
+                isPadding = true
+                continue
+            }
+            if (symbol.isWhitespace()) {
+                continue
+            }
+            val value = decodeBase64Symbol(symbol)
+            require(value >= 0) { "Invalid base64 character '$symbol' in action." }
+            require(!isPadding) { "Base64 padding found before the end of the action." }
+            bits = (bits shl 6) or value
+            bitCount += 6
+            symbolCount++
+            if (bitCount >= 8) {
+                bitCount -= 8
+                val byte = (bits shr bitCount) and 0xFF
+                bits = bits and ((1 shl bitCount) - 1)
+                if (lowerByte < 0) {
+                    lowerByte = byte
+                } else {
+                    chars[charCount++] = ((byte shl 8) or lowerByte).toChar()
+                    lowerByte = -1
+                }
+            }
         }
-        return JSONObject(result.toString())
+        require(symbolCount % 4 != 1) { "Truncated base64 action." }
+        require(lowerByte < 0) { "Action decodes to an odd number of bytes, which is not valid UTF-16." }
+        return String(chars, 0, charCount)
     }
 
+    @Suppress("MagicNumber")
+    private fun decodeBase64Symbol(symbol: Char): Int =
+        when (symbol) {
+            in 'A'..'Z' -> symbol - 'A'
+            in 'a'..'z' -> symbol - 'a' + 26
+            in '0'..'9' -> symbol - '0' + 52
+            '-' -> 62
+            '_' -> 63
+            else -> -1
+        }
+
     /**
      * Extracts the version from the Braze Action [Uri] and
      * decodes the Base64 portion of the action to [JSONObject].
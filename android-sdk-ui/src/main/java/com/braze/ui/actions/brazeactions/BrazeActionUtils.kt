@@ -9,10 +9,7 @@ import com.braze.models.inappmessage.IInAppMessage
 import com.braze.models.inappmessage.IInAppMessageImmersive
 import com.braze.models.inappmessage.MessageButton
 import com.braze.ui.actions.brazeactions.BrazeActionParser.ActionType
-import com.braze.ui.actions.brazeactions.BrazeActionParser.getBrazeActionVersionAndJson
 import com.braze.ui.actions.brazeactions.BrazeActionParser.isBrazeActionUri
-import com.braze.ui.actions.brazeactions.steps.ContainerStep
-import com.braze.ui.actions.brazeactions.steps.StepData
 import org.json.JSONObject
 
 /**
@@ -59,25 +56,12 @@ internal fun IInAppMessage?.getAllUris(): List<Uri> {
 }
 
 @JvmSynthetic
-internal fun getAllBrazeActionStepTypes(json: JSONObject): List<ActionType> {
-    val allStepTypes = mutableListOf<ActionType>()
-    val stepData = StepData(json)
-    when (val actionType = BrazeActionParser.getActionType(stepData)) {
-        // Break out the container steps and iterate them all
-        ActionType.CONTAINER -> {
-            ContainerStep
-                .getChildStepIterator(stepData)
-                .forEach { allStepTypes.addAll(getAllBrazeActionStepTypes(it)) }
-        }
-
-        // This is an individual/uncontained step
-        else -> allStepTypes.add(actionType)
-    }
-    return allStepTypes
-}
+internal fun getAllBrazeActionStepTypes(json: JSONObject): List<ActionType> =
+    ParsedBrazeAction(null, ParsedBrazeAction.buildStepTree(json)).stepTypes
 
 /**
  * Determines if any of the [Uri] in the list contain the given [ActionType].
+ * Uris that cannot be decoded count as [ActionType.INVALID].
  */
 internal fun doAnyTypesMatch(
     actionType: ActionType,
@@ -85,9 +69,4 @@ internal fun doAnyTypesMatch(
 ): Boolean =
     uriList
         .filter { it.isBrazeActionUri() }
-        // If the parsed json is null, then return an empty json
-        // object so we can return it as invalid in
-        // the next step.
-        .map { it.getBrazeActionVersionAndJson()?.second ?: JSONObject() }
-        .flatMap { getAllBrazeActionStepTypes(it) }
-        .any { it == actionType }
+        .any { BrazeActionParser.getParsedAction(it).stepTypes.contains(actionType) }
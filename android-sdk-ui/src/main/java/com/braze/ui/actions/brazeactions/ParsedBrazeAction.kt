@@ -0,0 +1,71 @@
+package com.braze.ui.actions.brazeactions
+
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.ui.actions.brazeactions.BrazeActionParser.ActionType
+import com.braze.ui.actions.brazeactions.steps.ContainerStep
+import com.braze.ui.actions.brazeactions.steps.StepData
+import org.json.JSONObject
+
+/**
+ * A decoded Braze Action [android.net.Uri], shared by validation and [BrazeActionParser.execute].
+ *
+ * @param version The Braze Actions version of the uri, or null if the uri could not be decoded.
+ * @param rootStep The validated step tree, or null if the uri could not be decoded.
+ */
+internal class ParsedBrazeAction(
+    val version: String?,
+    val rootStep: BrazeActionStepNode?,
+) {
+    /**
+     * The types of every non container step, in execution order. An action that could not be
+     * decoded has a single [ActionType.INVALID] step.
+     */
+    val stepTypes: List<ActionType> by lazy {
+        rootStep?.let { step -> mutableListOf<ActionType>().also { step.collectStepTypes(it) } }
+            ?: listOf(ActionType.INVALID)
+    }
+
+    companion object {
+        /**
+         * Builds the step tree of [json], validating every step once.
+         */
+        @JvmSynthetic
+        internal fun buildStepTree(json: JSONObject): BrazeActionStepNode {
+            val data = StepData(json)
+            val actionType = BrazeActionParser.getActionType(data)
+            if (actionType != ActionType.CONTAINER) {
+                return BrazeActionStepNode(actionType, data, emptyList())
+            }
+            val children = mutableListOf<BrazeActionStepNode>()
+            try {
+                ContainerStep
+                    .getChildStepIterator(data)
+                    .forEach { children.add(buildStepTree(it)) }
+            } catch (e: Exception) {
+                // The remaining steps are unreadable. Steps before this one still run, like they would
+                // when iterating the container directly.
+                brazelog(E, e) { "Failed to parse steps of container with data $data" }
+                children.add(BrazeActionStepNode(ActionType.INVALID, data, emptyList()))
+            }
+            return BrazeActionStepNode(actionType, data, children)
+        }
+    }
+}
+
+/**
+ * A validated step of a [ParsedBrazeAction]. Only container steps have [children].
+ */
+internal class BrazeActionStepNode(
+    val type: ActionType,
+    val data: StepData,
+    val children: List<BrazeActionStepNode>,
+) {
+    fun collectStepTypes(stepTypes: MutableList<ActionType>) {
+        if (type == ActionType.CONTAINER) {
+            children.forEach { it.collectStepTypes(stepTypes) }
+        } else {
+            stepTypes.add(type)
+        }
+    }
+}
@@ -6,7 +6,6 @@ import android.os.Bundle
 import android.os.Handler
 import android.os.Looper
 import android.util.AttributeSet
-import android.util.Base64
 import android.view.View
 import android.webkit.WebView
 import android.webkit.WebViewClient
@@ -21,10 +20,12 @@ import com.braze.support.BrazeLogger.Priority.E
 import com.braze.support.BrazeLogger.Priority.V
 import com.braze.support.BrazeLogger.Priority.W
 import com.braze.support.BrazeLogger.brazelog
+import com.braze.support.WebContentUtils.ASSET_LOADER_DUMMY_DOMAIN
 import com.braze.ui.R
 import com.braze.ui.banners.jsinterface.BannerJavascriptInterface
 import com.braze.ui.banners.listeners.DefaultBannerWebViewClientListener
 import com.braze.ui.banners.utils.BannerWebViewClient
+import com.braze.ui.support.BridgeJavascriptCache
 import com.braze.ui.support.setWebViewSettings
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicReference
@@ -122,6 +123,7 @@ class BannerView :
         defStyle: Int,
     ) {
         setBackgroundColor(Color.TRANSPARENT)
+        BridgeJavascriptCache.prewarm(context)
 
         // Load attributes
         context.withStyledAttributes(
@@ -159,6 +161,7 @@ class BannerView :
             ),
             JS_BRIDGE_NAME,
         )
+        BridgeJavascriptCache.addDocumentStartScriptIfEnabled(this)
     }
 
     /**
@@ -230,10 +233,14 @@ class BannerView :
         }
         configureWebView(placementId)
         loadedHtml?.let { html ->
-            loadData(
-                Base64.encodeToString(html.toByteArray(), Base64.NO_PADDING).orEmpty(),
-                "text/html",
-                "base64",
+            // Loading with a base URL avoids a Base64 copy of the HTML and lets the
+            // [BannerWebViewClient] serve cached assets, the same as for HTML in-app messages.
+            loadDataWithBaseURL(
+                "https://$ASSET_LOADER_DUMMY_DOMAIN/",
+                html,
+                HTML_MIME_TYPE,
+                HTML_ENCODING,
+                null,
             )
             invalidate()
         }
@@ -292,6 +299,7 @@ class BannerView :
             clearHistory()
             settings.javaScriptEnabled = false
             removeJavascriptInterface(JS_BRIDGE_NAME)
+            BridgeJavascriptCache.removeDocumentStartScript(this)
             webViewClient = WebViewClient()
             onPause()
             visibility = GONE
@@ -328,6 +336,8 @@ class BannerView :
 
     private companion object {
         private const val JS_BRIDGE_NAME = "brazeInternalBridge"
+        private const val HTML_MIME_TYPE = "text/html"
+        private const val HTML_ENCODING = "utf-8"
     }
 }
 
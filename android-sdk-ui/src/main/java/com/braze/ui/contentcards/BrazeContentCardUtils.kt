@@ -11,6 +11,30 @@ import com.braze.ui.actions.UriAction
 import com.braze.ui.actions.brazeactions.containsInvalidBrazeAction
 
 object BrazeContentCardUtils {
+    /**
+     * Orders cards by pinned, then newer, then card ID. This is the order used by [defaultCardHandling].
+     */
+    @JvmField
+    val defaultCardComparator =
+        Comparator { cardA: Card, cardB: Card ->
+            when {
+                // A displays above B since A is pinned and B isn't
+                cardA.isPinned && !cardB.isPinned -> -1
+                // B displays above A since B is pinned and A isn't
+                !cardA.isPinned && cardB.isPinned -> 1
+                // At this point, both A & B are pinned or both A & B are non-pinned
+                // A displays above B if A is newer
+                cardA.created > cardB.created -> -1
+                // B displays above A if B is newer
+                cardA.created < cardB.created -> 1
+                // Last chance with the card IDs
+                cardA.id > cardB.id -> -1
+                cardA.id < cardB.id -> 1
+                // They're considered equal at this point (although ID's should never match)
+                else -> 0
+            }
+        }
+
     /**
      * Sort cards by pinned, then newer, then card ID. Will also removed
      * cards with invalid BrazeActions
@@ -18,32 +42,10 @@ object BrazeContentCardUtils {
      * @param cards Cards to sort
      * @return List of cards sorted and filtered
      */
-    fun defaultCardHandling(cards: List<Card>): List<Card> {
-        // Sort by pinned, then by the 'updated' timestamp descending
-        // Pinned before non-pinned
-        val cardComparator =
-            Comparator { cardA: Card, cardB: Card ->
-                when {
-                    // A displays above B since A is pinned and B isn't
-                    cardA.isPinned && !cardB.isPinned -> -1
-                    // B displays above A since B is pinned and A isn't
-                    !cardA.isPinned && cardB.isPinned -> 1
-                    // At this point, both A & B are pinned or both A & B are non-pinned
-                    // A displays above B if A is newer
-                    cardA.created > cardB.created -> -1
-                    // B displays above A if B is newer
-                    cardA.created < cardB.created -> 1
-                    // Last chance with the card IDs
-                    cardA.id > cardB.id -> -1
-                    cardA.id < cardB.id -> 1
-                    // They're considered equal at this point (although ID's should never match)
-                    else -> 0
-                }
-            }
-        return cards
+    fun defaultCardHandling(cards: List<Card>): List<Card> =
+        cards
             .filter { card -> !card.containsInvalidBrazeAction() }
-            .sortedWith(cardComparator)
-    }
+            .sortedWith(defaultCardComparator)
 
     fun getUriActionForCard(card: Card): UriAction? {
         val url = card.url
@@ -0,0 +1,214 @@
+package com.braze.ui.contentcards
+
+import android.content.Context
+import androidx.annotation.MainThread
+import com.braze.Braze
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.enums.BrazeViewBounds
+import com.braze.models.cards.CaptionedImageCard
+import com.braze.models.cards.Card
+import com.braze.models.cards.ImageOnlyCard
+import com.braze.models.cards.ShortNewsCard
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
+import kotlin.math.abs
+import kotlin.math.min
+import kotlin.math.roundToInt
+
+/**
+ * Loads the images of the cards just past the visible ones, in the direction of the scroll, so they
+ * are already cached when those cards are bound.
+ *
+ * The number of cards looked ahead is [prefetchDistance], doubled for fast scrolls. The estimated
+ * decoded size of the images in flight and prefetched for the current range is kept under
+ * [memoryBudgetBytes]. Images of cards that fall out of the range are cancelled and stop counting
+ * against the budget.
+ *
+ * Prefetching is off unless [isEnabled] is set.
+ *
+ * @param startImageFetch Starts loading the image at the url into the cache at the given size and
+ *                        returns the [Job] doing so.
+ */
+class ContentCardImagePrefetcher(
+    private val startImageFetch: (imageUrl: String, widthPx: Int, heightPx: Int) -> Job,
+) {
+    private class ImageFetch(
+        val job: Job,
+        val estimatedBytes: Long,
+    )
+
+    /** The images of the current range, keyed by url. Only accessed on the main thread. */
+    private val imageFetches = mutableMapOf<String, ImageFetch>()
+    private var budgetUsedBytes = 0L
+
+    /**
+     * Prefetches the images of the cards after [lastVisiblePosition] when [scrollDeltaPx] is positive or
+     * zero, or before [firstVisiblePosition] when it is negative.
+     *
+     * @param cards The cards of the list, in list order.
+     * @param scrollDeltaPx The distance scrolled since the last call.
+     * @param itemWidthPx The width cards are laid out at. Image heights are derived from it and the
+     *                    aspect ratio of each card.
+     */
+    @MainThread
+    @Suppress("LongParameterList")
+    fun onScrolled(
+        cards: List<Card>,
+        firstVisiblePosition: Int,
+        lastVisiblePosition: Int,
+        scrollDeltaPx: Int,
+        itemWidthPx: Int,
+    ) {
+        if (!isEnabled || firstVisiblePosition < 0 || lastVisiblePosition < firstVisiblePosition || itemWidthPx <= 0) {
+            return
+        }
+        val distance = getPrefetchDistance(scrollDeltaPx)
+        val positions =
+            if (scrollDeltaPx >= 0) {
+                lastVisiblePosition + 1..lastVisiblePosition + distance
+            } else {
+                firstVisiblePosition - 1 downTo firstVisiblePosition - distance
+            }
+
+        // Image url to height, nearest card first
+        val imagesInRange = linkedMapOf<String, Int>()
+        for (position in positions) {
+            val card = cards.getOrNull(position) ?: continue
+            val imageUrl = card.getPrefetchImageUrl() ?: continue
+            if (!imagesInRange.containsKey(imageUrl)) {
+                imagesInRange[imageUrl] = getImageHeight(card.getPrefetchAspectRatio(), itemWidthPx)
+            }
+        }
+
+        cancelOutOfRange(imagesInRange.keys)
+
+        val budgetBytes = memoryBudgetBytes
+        for ((imageUrl, heightPx) in imagesInRange) {
+            if (imageFetches.containsKey(imageUrl)) {
+                continue
+            }
+            val estimatedBytes = itemWidthPx.toLong() * heightPx * BYTES_PER_PIXEL
+            if (budgetUsedBytes + estimatedBytes > budgetBytes) {
+                brazelog(V) { "Content Card image prefetch budget of $budgetBytes bytes reached. Not prefetching $imageUrl" }
+                break
+            }
+            imageFetches[imageUrl] = ImageFetch(startImageFetch(imageUrl, itemWidthPx, heightPx), estimatedBytes)
+            budgetUsedBytes += estimatedBytes
+        }
+    }
+
+    /**
+     * Cancels every image being prefetched. Call when the list goes away.
+     */
+    @MainThread
+    fun cancelAll() = cancelOutOfRange(emptySet())
+
+    private fun cancelOutOfRange(imageUrlsInRange: Set<String>) {
+        val iterator = imageFetches.iterator()
+        while (iterator.hasNext()) {
+            val (imageUrl, imageFetch) = iterator.next()
+            if (imageUrl !in imageUrlsInRange) {
+                imageFetch.job.cancel()
+                budgetUsedBytes -= imageFetch.estimatedBytes
+                iterator.remove()
+            }
+        }
+    }
+
+    companion object {
+        const val DEFAULT_PREFETCH_DISTANCE = 3
+        const val DEFAULT_MEMORY_BUDGET_BYTES = 8L * 1024 * 1024
+
+        /** Scrolls of at least this many pixels between two calls double the prefetch distance. */
+        private const val FAST_SCROLL_DELTA_PX = 120
+        private const val BYTES_PER_PIXEL = 4
+        private const val MAX_CONCURRENT_FETCHES = 2
+
+        /**
+         * Whether images of upcoming cards are prefetched. Prefetching loads and decodes images in the
+         * background, so it is opt-in. Defaults to false.
+         */
+        @JvmStatic
+        @Volatile
+        var isEnabled = false
+
+        /**
+         * The number of cards past the visible ones whose images are prefetched on slow scrolls.
+         * Defaults to [DEFAULT_PREFETCH_DISTANCE].
+         */
+        @JvmStatic
+        @Volatile
+        var prefetchDistance = DEFAULT_PREFETCH_DISTANCE
+
+        /**
+         * The estimated decoded size, in bytes, of the images each prefetcher keeps in flight or
+         * prefetched for its current range. Defaults to [DEFAULT_MEMORY_BUDGET_BYTES].
+         */
+        @JvmStatic
+        @Volatile
+        var memoryBudgetBytes = DEFAULT_MEMORY_BUDGET_BYTES
+
+        /**
+         * Returns a prefetcher that loads images through [com.braze.images.IBrazeImageLoader], which
+         * caches them for [com.braze.ui.contentcards.view.BaseCardView] to render.
+         *
+         * The image loader takes no target size and decodes with the bounds of
+         * [BrazeViewBounds.BASE_CARD_VIEW], so the sizes the budget is estimated at are never
+         * requested. The budget of this prefetcher is only an approximation of its memory use.
+         */
+        @JvmStatic
+        fun create(context: Context): ContentCardImagePrefetcher {
+            val applicationContext = context.applicationContext
+            val semaphore = Semaphore(MAX_CONCURRENT_FETCHES)
+            return ContentCardImagePrefetcher { imageUrl, _, _ ->
+                BrazeCoroutineScope.launch(Dispatchers.IO) {
+                    semaphore.withPermit {
+                        try {
+                            Braze.getInstance(applicationContext).imageLoader.getPushBitmapFromUrl(
+                                applicationContext,
+                                null,
+                                imageUrl,
+                                BrazeViewBounds.BASE_CARD_VIEW,
+                            )
+                            brazelog(V) { "Prefetched Content Card image $imageUrl" }
+                        } catch (e: Exception) {
+                            brazelog(E, e) { "Failed to prefetch Content Card image $imageUrl" }
+                        }
+                    }
+                }
+            }
+        }
+
+        private fun getPrefetchDistance(scrollDeltaPx: Int): Int {
+            val distance = prefetchDistance
+            return distance + distance * min(abs(scrollDeltaPx), FAST_SCROLL_DELTA_PX) / FAST_SCROLL_DELTA_PX
+        }
+
+        /** Cards without an aspect ratio are assumed to have square images. */
+        private fun getImageHeight(
+            aspectRatio: Float,
+            widthPx: Int,
+        ) = if (aspectRatio > 0f) (widthPx / aspectRatio).roundToInt().coerceAtLeast(1) else widthPx
+
+        private fun Card.getPrefetchImageUrl(): String? =
+            when (this) {
+                is CaptionedImageCard -> imageUrl
+                is ImageOnlyCard -> imageUrl
+                is ShortNewsCard -> imageUrl
+                else -> null
+            }?.takeIf { it.isNotBlank() }
+
+        private fun Card.getPrefetchAspectRatio(): Float =
+            when (this) {
+                is CaptionedImageCard -> aspectRatio
+                is ImageOnlyCard -> aspectRatio
+                else -> 0f
+            }
+    }
+}
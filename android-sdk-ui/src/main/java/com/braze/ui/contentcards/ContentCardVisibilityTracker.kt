@@ -0,0 +1,170 @@
+package com.braze.ui.contentcards
+
+import com.braze.models.cards.Card
+import java.util.BitSet
+
+/**
+ * Tracks which Content Cards of a list are fully visible, and which cards already had an
+ * impression logged.
+ *
+ * Cards are looked up through an id to position map and the fully visible positions are kept in
+ * a [BitSet], so updating and checking visibility never scans the card list. Every visibility
+ * update returns the cards that became visible for the first time as one batch, which the caller
+ * should log impressions for. Each card id is returned at most once.
+ *
+ * The impressed ids can be saved with [saveImpressions] as 64-bit hashes, which keeps the saved
+ * instance state small for long lists, and restored with [restoreImpressions].
+ *
+ * Used by [com.braze.ui.contentcards.adapters.ContentCardAdapter] and the Jetpack Compose
+ * `ContentCardsList`. Not thread safe, meant to be used from the main thread.
+ */
+class ContentCardVisibilityTracker {
+    private var cards: List<Card> = emptyList()
+    private val positionsByCardId = HashMap<String, Int>()
+    private var fullyVisiblePositions = BitSet()
+    private val impressedCardIdsInternal = HashSet<String>()
+    private val restoredImpressionHashes = HashSet<Long>()
+
+    /**
+     * The ids of every card that was returned as impressed, or marked through [markImpressed].
+     * Impressions restored through [restoreImpressions] are only included once their card was seen again.
+     */
+    val impressedCardIds: Set<String>
+        get() = impressedCardIdsInternal
+
+    /**
+     * Sets the cards of the list. Positions passed to the other methods refer to this list.
+     * Resets the visible positions, since they refer to the previous list.
+     */
+    fun setCards(newCards: List<Card>) {
+        if (newCards === cards) {
+            return
+        }
+        cards = newCards
+        positionsByCardId.clear()
+        newCards.forEachIndexed { position, card -> positionsByCardId.putIfAbsent(card.id, position) }
+        fullyVisiblePositions = BitSet()
+    }
+
+    /**
+     * Replaces the fully visible positions with [range].
+     *
+     * @return The cards in [range] that were not impressed yet. They are now marked as impressed.
+     */
+    fun setFullyVisibleRange(range: IntRange): List<Card> {
+        val visiblePositions = BitSet()
+        val start = range.first.coerceAtLeast(0)
+        val end = (range.last + 1).coerceAtMost(cards.size)
+        if (start < end) {
+            visiblePositions.set(start, end)
+        }
+        val newlyVisiblePositions = visiblePositions.clone() as BitSet
+        newlyVisiblePositions.andNot(fullyVisiblePositions)
+        fullyVisiblePositions = visiblePositions
+        return takeNewImpressions(newlyVisiblePositions)
+    }
+
+    /**
+     * Marks a single position as fully visible or not.
+     *
+     * @return The card at [position] if it became visible and was not impressed yet. It is now marked
+     * as impressed.
+     */
+    fun setPositionVisible(
+        position: Int,
+        isVisible: Boolean,
+    ): Card? {
+        if (position < 0 || position >= cards.size) {
+            return null
+        }
+        if (!isVisible) {
+            fullyVisiblePositions.clear(position)
+            return null
+        }
+        fullyVisiblePositions.set(position)
+        val card = cards[position]
+        return card.takeIf { markImpressed(it.id) }
+    }
+
+    /**
+     * Returns whether the card with [cardId] is currently fully visible.
+     */
+    fun isFullyVisible(cardId: String): Boolean {
+        val position = positionsByCardId[cardId] ?: return false
+        return fullyVisiblePositions[position]
+    }
+
+    /**
+     * Returns whether an impression was already recorded for [cardId].
+     */
+    fun isImpressed(cardId: String) = impressedCardIdsInternal.contains(cardId) || isRestoredImpression(cardId)
+
+    /**
+     * Marks [cardId] as impressed, for example for a card that isn't part of the list.
+     *
+     * @return true if [cardId] was not impressed before.
+     */
+    fun markImpressed(cardId: String): Boolean {
+        if (isRestoredImpression(cardId)) {
+            impressedCardIdsInternal.add(cardId)
+            return false
+        }
+        return impressedCardIdsInternal.add(cardId)
+    }
+
+    /**
+     * Marks every id in [cardIds] as impressed, for example when restoring saved state.
+     */
+    fun markImpressed(cardIds: Collection<String>) {
+        impressedCardIdsInternal.addAll(cardIds)
+    }
+
+    /**
+     * Returns every impression as a 64-bit hash of its card id, to be passed to [restoreImpressions].
+     */
+    fun saveImpressions(): LongArray {
+        val hashes = HashSet<Long>(restoredImpressionHashes)
+        impressedCardIdsInternal.forEach { hashes.add(hashCardId(it)) }
+        return hashes.toLongArray()
+    }
+
+    /**
+     * Marks the cards saved by [saveImpressions] as impressed.
+     */
+    fun restoreImpressions(impressionHashes: LongArray) {
+        impressionHashes.forEach { restoredImpressionHashes.add(it) }
+    }
+
+    private fun takeNewImpressions(positions: BitSet): List<Card> {
+        val newImpressions = mutableListOf<Card>()
+        var position = positions.nextSetBit(0)
+        while (position >= 0) {
+            val card = cards[position]
+            if (markImpressed(card.id)) {
+                newImpressions.add(card)
+            }
+            position = positions.nextSetBit(position + 1)
+        }
+        return newImpressions
+    }
+
+    private fun isRestoredImpression(cardId: String) =
+        restoredImpressionHashes.isNotEmpty() && restoredImpressionHashes.contains(hashCardId(cardId))
+
+    companion object {
+        private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+        private const val FNV_PRIME = 0x100000001b3L
+
+        /**
+         * 64-bit FNV-1a hash of [cardId]. Collisions are unlikely enough for the number of cards in a
+         * list that they are not handled.
+         */
+        private fun hashCardId(cardId: String): Long {
+            var hash = FNV_OFFSET_BASIS
+            for (char in cardId) {
+                hash = (hash xor char.code.toLong()) * FNV_PRIME
+            }
+            return hash
+        }
+    }
+}
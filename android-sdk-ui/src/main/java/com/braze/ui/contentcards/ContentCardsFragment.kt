@@ -18,6 +18,7 @@ import com.braze.events.ContentCardsUpdatedEvent
 import com.braze.events.ContentCardsUpdatedEvent.Companion.emptyUpdate
 import com.braze.events.IEventSubscriber
 import com.braze.events.SdkDataWipeEvent
+import com.braze.models.cards.Card
 import com.braze.support.BrazeLogger.Priority.I
 import com.braze.support.BrazeLogger.Priority.V
 import com.braze.support.BrazeLogger.brazelog
@@ -29,10 +30,12 @@ import com.braze.ui.contentcards.handlers.DefaultContentCardsViewBindingHandler
 import com.braze.ui.contentcards.handlers.IContentCardsUpdateHandler
 import com.braze.ui.contentcards.handlers.IContentCardsViewBindingHandler
 import com.braze.ui.contentcards.recycler.ContentCardsDividerItemDecoration
+import com.braze.ui.contentcards.recycler.ContentCardsViewHolderPool
 import com.braze.ui.contentcards.recycler.SimpleItemTouchHelperCallback
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 
 /**
  * A fragment to display Braze ContentCards.
@@ -47,6 +50,49 @@ open class ContentCardsFragment :
      */
     protected var networkUnavailableJob: Job? = null
 
+    /**
+     * The job processing the most recent [ContentCardsUpdatedEvent]. Cancelled when a
+     * newer event arrives so that stale results are never rendered.
+     */
+    @Volatile
+    protected var contentCardsUpdateJob: Job? = null
+
+    /**
+     * When true, the [IContentCardsUpdateHandler] and the card list diff run on a
+     * background dispatcher, and only the dispatch of the diff to the [ContentCardAdapter]
+     * happens on the main thread. Any custom [IContentCardsUpdateHandler] must then be safe
+     * to call off the main thread. Defaults to false.
+     */
+    var isAsyncCardUpdateEnabled = false
+
+    /**
+     * When set, cards are sorted incrementally across updates by the [PagedContentCardList] and
+     * only its [PagedContentCardList.window] is handed to the [ContentCardAdapter]. The window grows
+     * by a page as the user scrolls towards its end. Intended for feeds with a very large number of cards.
+     *
+     * If a custom [IContentCardsUpdateHandler] is set, its output order is kept and only windowed.
+     * Defaults to null, which renders every card.
+     */
+    var pagedContentCardList: PagedContentCardList? = null
+
+    /**
+     * When true, view holders for the first cached cards are inflated on a background thread as soon
+     * as the fragment is created, into a [RecyclerView.RecycledViewPool] shared by the
+     * [ContentCardsFragment]s of the activity. See [ContentCardsViewHolderPool]. Any custom
+     * [IContentCardsViewBindingHandler] must then be safe to call off the main thread. Must be set
+     * before the fragment is created. Defaults to false.
+     */
+    var isViewHolderPreInflationEnabled = false
+
+    /**
+     * When true, the [RecyclerView] uses the [RecyclerView.RecycledViewPool] shared by the
+     * [ContentCardsFragment]s of the activity, and returns its view holders to it when the view is
+     * destroyed. Reopening the feed, for example when switching between tabs, then binds cards into
+     * existing view holders instead of inflating new ones. See [ContentCardsViewHolderPool].
+     * Defaults to false.
+     */
+    var isSharedRecycledViewPoolEnabled = false
+
     /**
      * A [RecyclerView] associated with [ContentCardsFragment].
      * Note that this will be null until [Fragment.onCreateView] is called.
@@ -109,6 +155,13 @@ open class ContentCardsFragment :
         customContentCardsViewBindingHandler = value
     }
 
+    override fun onCreate(savedInstanceState: Bundle?) {
+        super.onCreate(savedInstanceState)
+        if (isViewHolderPreInflationEnabled) {
+            ContentCardsViewHolderPool.preInflate(requireContext(), getContentCardsViewBindingHandler())
+        }
+    }
+
     override fun onCreateView(
         inflater: LayoutInflater,
         container: ViewGroup?,
@@ -166,6 +219,8 @@ open class ContentCardsFragment :
         Braze.getInstance(requireContext()).removeSingleSubscription(sdkDataWipeEventSubscriber, SdkDataWipeEvent::class.java)
         networkUnavailableJob?.cancel()
         networkUnavailableJob = null
+        contentCardsUpdateJob?.cancel()
+        contentCardsUpdateJob = null
         cardAdapter?.markOnScreenCardsAsRead()
     }
 
@@ -175,7 +230,7 @@ open class ContentCardsFragment :
             outState.putParcelable(LAYOUT_MANAGER_SAVED_INSTANCE_STATE_KEY, it.onSaveInstanceState())
         }
         cardAdapter?.let {
-            outState.putStringArrayList(KNOWN_CARD_IMPRESSIONS_SAVED_INSTANCE_STATE_KEY, ArrayList(it.impressedCardIds))
+            outState.putLongArray(KNOWN_CARD_IMPRESSIONS_SAVED_INSTANCE_STATE_KEY, it.saveImpressions())
         }
         customContentCardsViewBindingHandler?.let {
             outState.putParcelable(VIEW_BINDING_HANDLER_SAVED_INSTANCE_STATE_KEY, it)
@@ -226,12 +281,12 @@ open class ContentCardsFragment :
                     }
                 }
                 cardAdapter?.let {
-                    val savedCardIdImpressions: List<String>? =
-                        savedInstanceState.getStringArrayList(
+                    val savedCardImpressions: LongArray? =
+                        savedInstanceState.getLongArray(
                             KNOWN_CARD_IMPRESSIONS_SAVED_INSTANCE_STATE_KEY,
                         )
-                    if (savedCardIdImpressions != null) {
-                        it.impressedCardIds = savedCardIdImpressions
+                    if (savedCardImpressions != null) {
+                        it.restoreImpressions(savedCardImpressions)
                     }
                 }
             }
@@ -250,6 +305,13 @@ open class ContentCardsFragment :
             )
         contentCardsRecyclerView?.adapter = cardAdapter
         contentCardsRecyclerView?.layoutManager = layoutManager
+        if (isViewHolderPreInflationEnabled || isSharedRecycledViewPoolEnabled) {
+            // Hand the views back to the shared pool when the RecyclerView is detached
+            layoutManager.recycleChildrenOnDetach = true
+            contentCardsRecyclerView?.setRecycledViewPool(
+                ContentCardsViewHolderPool.getRecycledViewPool(requireContext(), getContentCardsViewBindingHandler()),
+            )
+        }
         attachSwipeHelperCallback()
 
         // Disable any animations when the items change to avoid any issues when the data changes
@@ -261,6 +323,34 @@ open class ContentCardsFragment :
 
         // Add an item divider
         contentCardsRecyclerView?.addItemDecoration(ContentCardsDividerItemDecoration(requireContext()))
+        contentCardsRecyclerView?.addOnScrollListener(
+            object : RecyclerView.OnScrollListener() {
+                override fun onScrolled(
+                    recyclerView: RecyclerView,
+                    dx: Int,
+                    dy: Int,
+                ) {
+                    loadNextPageIfNeeded(recyclerView, layoutManager)
+                }
+            },
+        )
+    }
+
+    /**
+     * Grows the window of the [pagedContentCardList] once the user scrolls close to the end of the
+     * loaded cards, and hands the new window to the [cardAdapter].
+     */
+    protected fun loadNextPageIfNeeded(
+        recyclerView: RecyclerView,
+        layoutManager: LinearLayoutManager,
+    ) {
+        val pagedCards = pagedContentCardList ?: return
+        val nextPage = pagedCards.loadNextPageIfNeeded(layoutManager.findLastVisibleItemPosition())
+        if (nextPage.isNotEmpty()) {
+            // Adapter updates aren't allowed during a scroll callback. The window is read when the
+            // runnable runs, since an update may have already handed the new page to the adapter.
+            recyclerView.post { cardAdapter?.replaceCards(pagedCards.window) }
+        }
     }
 
     /**
@@ -275,9 +365,11 @@ open class ContentCardsFragment :
 
     /**
      * Handles the processing and rendering for a [ContentCardsUpdatedEvent] on the UI thread.
+     * Any update still in progress for a previous event is cancelled.
      */
     protected fun handleContentCardsUpdatedEvent(event: ContentCardsUpdatedEvent) {
-        BrazeCoroutineScope.launch(Dispatchers.Main) { contentCardsUpdate(event) }
+        contentCardsUpdateJob?.cancel()
+        contentCardsUpdateJob = BrazeCoroutineScope.launch(Dispatchers.Main) { contentCardsUpdate(event) }
     }
 
     /**
@@ -289,8 +381,35 @@ open class ContentCardsFragment :
         // and be a smaller list of cards compared to the original list
         // in the update event. Thus, any "empty feed" checks should be
         // performed on this filtered list and not the original list of cards.
-        val cardsForRendering = getContentCardUpdateHandler().handleCardUpdate(event)
-        cardAdapter?.replaceCards(cardsForRendering)
+        val updateHandler = getContentCardUpdateHandler()
+        val pagedCards = pagedContentCardList
+        val isCustomUpdateHandler = customContentCardUpdateHandler != null
+
+        fun processUpdate(): List<Card> {
+            if (pagedCards == null) {
+                return updateHandler.handleCardUpdate(event)
+            }
+            if (isCustomUpdateHandler) {
+                pagedCards.update(updateHandler.handleCardUpdate(event), isAlreadySorted = true)
+            } else {
+                pagedCards.update(event.allCards)
+            }
+            return pagedCards.allCards
+        }
+
+        val cardsForRendering =
+            if (isAsyncCardUpdateEnabled) {
+                withContext(Dispatchers.Default) { processUpdate() }
+            } else {
+                processUpdate()
+            }
+        val cardsForAdapter = pagedCards?.window ?: cardsForRendering
+        cardAdapter?.pagedContentCardList = pagedCards
+        if (isAsyncCardUpdateEnabled) {
+            cardAdapter?.replaceCardsAsync(cardsForAdapter)
+        } else {
+            cardAdapter?.replaceCards(cardsForAdapter)
+        }
         networkUnavailableJob?.cancel()
         networkUnavailableJob = null
 
@@ -0,0 +1,152 @@
+package com.braze.ui.contentcards
+
+import com.braze.models.cards.Card
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.ui.actions.brazeactions.containsInvalidBrazeAction
+
+/**
+ * Keeps a list of Content Cards sorted across updates and exposes it one page at a time.
+ *
+ * Instead of sorting the full list on every update, cards whose position-affecting fields
+ * ([Card.isPinned] and [Card.created]) are unchanged keep their position, and only new or
+ * changed cards are sorted and merged in. Only the cards in [window] are meant to be handed
+ * to the UI, which grows the window through [loadNextPageIfNeeded] as the user scrolls.
+ *
+ * All methods are safe to call from multiple threads.
+ *
+ * @param pageSize The number of cards added to the [window] per page.
+ * @param prefetchDistance How close to the end of the [window], in cards, the user must scroll
+ * before the next page is loaded.
+ * @param comparator The order of the cards. Defaults to [BrazeContentCardUtils.defaultCardComparator].
+ */
+class PagedContentCardList @JvmOverloads constructor(
+    val pageSize: Int = DEFAULT_PAGE_SIZE,
+    val prefetchDistance: Int = DEFAULT_PREFETCH_DISTANCE,
+    private val comparator: Comparator<Card> = BrazeContentCardUtils.defaultCardComparator,
+) {
+    private var sortedCards: List<Card> = emptyList()
+    private var loadedCount = pageSize
+
+    init {
+        require(pageSize > 0) { "Page size must be positive. Got $pageSize" }
+    }
+
+    /**
+     * Every card in sorted order, including the cards outside of the [window].
+     */
+    val allCards: List<Card>
+        @Synchronized get() = sortedCards
+
+    /**
+     * The cards that should currently be rendered, in sorted order.
+     */
+    val window: List<Card>
+        @Synchronized get() = sortedCards.subList(0, minOf(loadedCount, sortedCards.size)).toList()
+
+    /**
+     * Whether some cards are not yet part of the [window].
+     */
+    val hasMoreCards: Boolean
+        @Synchronized get() = loadedCount < sortedCards.size
+
+    /**
+     * Replaces the cards with [newCards]. Cards containing an invalid Braze Action are filtered out.
+     *
+     * @param isAlreadySorted When true, [newCards] is used in the given order, for example when it has
+     * already been sorted by a custom update handler.
+     * @return The new [window].
+     */
+    @JvmOverloads
+    @Synchronized
+    fun update(
+        newCards: List<Card>,
+        isAlreadySorted: Boolean = false,
+    ): List<Card> {
+        sortedCards =
+            if (isAlreadySorted) {
+                newCards
+            } else {
+                mergeSorted(newCards.filter { !it.containsInvalidBrazeAction() })
+            }
+        return window
+    }
+
+    /**
+     * Grows the [window] by a page if [lastVisiblePosition] is within [prefetchDistance] of its end.
+     *
+     * @return The cards added to the end of the [window], or an empty list if the window did not grow.
+     */
+    @Synchronized
+    fun loadNextPageIfNeeded(lastVisiblePosition: Int): List<Card> {
+        val windowSize = minOf(loadedCount, sortedCards.size)
+        if (!hasMoreCards || lastVisiblePosition < windowSize - prefetchDistance) {
+            return emptyList()
+        }
+        loadedCount += pageSize
+        val newWindowSize = minOf(loadedCount, sortedCards.size)
+        brazelog(V) { "Loading next page of Content Cards. Window is now $newWindowSize of ${sortedCards.size} cards." }
+        return sortedCards.subList(windowSize, newWindowSize).toList()
+    }
+
+    /**
+     * Removes a card, for example after it was dismissed. Removing a card of the [window] shrinks
+     * the window by one, so it keeps matching the cards the UI shows.
+     */
+    @Synchronized
+    fun remove(card: Card) {
+        val index = sortedCards.indexOfFirst { it.id == card.id }
+        if (index < 0) {
+            return
+        }
+        if (index < loadedCount) {
+            loadedCount--
+        }
+        sortedCards = sortedCards.filterIndexed { i, _ -> i != index }
+    }
+
+    /**
+     * Keeps the relative order of cards whose sort fields did not change, then merges in the
+     * sorted new and changed cards.
+     */
+    private fun mergeSorted(newCards: List<Card>): List<Card> {
+        val previousCardsById = sortedCards.associateBy { it.id }
+        val newCardsById = newCards.associateBy { it.id }
+
+        // The previous order is still valid for every card whose sort fields are unchanged
+        val unchangedCards =
+            sortedCards.mapNotNull { previousCard ->
+                newCardsById[previousCard.id]?.takeIf { it.hasSameSortFieldsAs(previousCard) }
+            }
+        val changedCards =
+            newCards
+                .filter { newCard ->
+                    val previousCard = previousCardsById[newCard.id]
+                    previousCard == null || !newCard.hasSameSortFieldsAs(previousCard)
+                }.sortedWith(comparator)
+        if (changedCards.isEmpty()) {
+            return unchangedCards
+        }
+
+        val merged = ArrayList<Card>(unchangedCards.size + changedCards.size)
+        var unchangedIndex = 0
+        var changedIndex = 0
+        while (unchangedIndex < unchangedCards.size && changedIndex < changedCards.size) {
+            if (comparator.compare(unchangedCards[unchangedIndex], changedCards[changedIndex]) <= 0) {
+                merged.add(unchangedCards[unchangedIndex++])
+            } else {
+                merged.add(changedCards[changedIndex++])
+            }
+        }
+        merged.addAll(unchangedCards.subList(unchangedIndex, unchangedCards.size))
+        merged.addAll(changedCards.subList(changedIndex, changedCards.size))
+        return merged
+    }
+
+    private fun Card.hasSameSortFieldsAs(other: Card) = isPinned == other.isPinned && created == other.created
+
+    companion object {
+        const val DEFAULT_PAGE_SIZE = 30
+        const val DEFAULT_PREFETCH_DISTANCE = 10
+    }
+}
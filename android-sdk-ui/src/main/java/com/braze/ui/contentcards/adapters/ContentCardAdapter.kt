@@ -11,10 +11,18 @@ import androidx.recyclerview.widget.RecyclerView
 import com.braze.models.cards.Card
 import com.braze.support.BrazeLogger.Priority.V
 import com.braze.support.BrazeLogger.brazelog
+import com.braze.ui.contentcards.ContentCardImagePrefetcher
+import com.braze.ui.contentcards.ContentCardVisibilityTracker
+import com.braze.ui.contentcards.PagedContentCardList
 import com.braze.ui.contentcards.handlers.IContentCardsViewBindingHandler
 import com.braze.ui.contentcards.managers.BrazeContentCardsManager
+import com.braze.ui.contentcards.recycler.ContentCardChangePayload
+import com.braze.ui.contentcards.recycler.ContentCardFingerprint
+import com.braze.ui.contentcards.recycler.ContentCardStableIds
 import com.braze.ui.contentcards.recycler.ItemTouchHelperAdapter
 import com.braze.ui.contentcards.view.ContentCardViewHolder
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
 import kotlin.math.max
 import kotlin.math.min
 
@@ -28,20 +36,60 @@ open class ContentCardAdapter(
     ItemTouchHelperAdapter {
     // Handler is still used here instead of coroutines because it guarantees order
     private val handler: Handler = Handler(Looper.getMainLooper())
-    private var impressedCardIdsInternal = mutableSetOf<String>()
+    private val visibilityTracker = ContentCardVisibilityTracker()
+
+    /**
+     * Incremented on every change to [cardData]. Used by [replaceCardsAsync] to detect
+     * that the cards changed while a diff was being calculated in the background.
+     */
+    private var cardDataVersion = 0
+
+    /**
+     * The [ContentCardFingerprint] of each card as it was last bound, keyed by card id.
+     */
+    private var cardFingerprints = mutableMapOf<String, ContentCardFingerprint>()
+
+    /**
+     * The [PagedContentCardList] the cards of this adapter are a window of, if any. Dismissed cards
+     * are removed from it so that its window stays in step with the adapter.
+     */
+    var pagedContentCardList: PagedContentCardList? = null
+
+    private val imagePrefetcher = ContentCardImagePrefetcher.create(context)
+
+    /**
+     * Prefetches the images of the cards about to scroll into view.
+     */
+    private val imagePrefetchScrollListener =
+        object : RecyclerView.OnScrollListener() {
+            override fun onScrolled(
+                recyclerView: RecyclerView,
+                dx: Int,
+                dy: Int,
+            ) {
+                imagePrefetcher.onScrolled(
+                    cardData,
+                    layoutManager.findFirstVisibleItemPosition(),
+                    layoutManager.findLastVisibleItemPosition(),
+                    dy,
+                    recyclerView.width - recyclerView.paddingLeft - recyclerView.paddingRight,
+                )
+            }
+        }
 
     /**
      * A list of the impressed card ids.
      */
     var impressedCardIds: List<String>
-        get() = impressedCardIdsInternal.toList()
+        get() = visibilityTracker.impressedCardIds.toList()
         set(impressedCardIds) {
-            impressedCardIdsInternal = impressedCardIds.toMutableSet()
+            visibilityTracker.markImpressed(impressedCardIds)
         }
 
     init {
         // We use stable ids to ensure that the same ViewHolder gets used with the same item.
         setHasStableIds(true)
+        visibilityTracker.setCards(cardData.toList())
     }
 
     override fun onCreateViewHolder(
@@ -56,6 +104,19 @@ open class ContentCardAdapter(
         contentCardsViewBindingHandler.onBindViewHolder(context, cardData, viewHolder, position)
     }
 
+    override fun onBindViewHolder(
+        viewHolder: ContentCardViewHolder,
+        position: Int,
+        payloads: MutableList<Any>,
+    ) {
+        val changePayload = ContentCardChangePayload.fromPayloads(payloads)
+        if (changePayload == null) {
+            onBindViewHolder(viewHolder, position)
+            return
+        }
+        contentCardsViewBindingHandler.onBindViewHolderChanges(context, cardData, viewHolder, position, changePayload)
+    }
+
     override fun getItemViewType(position: Int) = contentCardsViewBindingHandler.getItemViewType(context, cardData, position)
 
     override fun getItemCount() = cardData.size
@@ -69,6 +130,9 @@ open class ContentCardAdapter(
             return
         }
         val removedCard = cardData.removeAt(position)
+        pagedContentCardList?.remove(removedCard)
+        cardFingerprints.remove(removedCard.id)
+        onCardDataChanged()
         removedCard.isDismissed = true
         notifyItemRemoved(position)
         BrazeContentCardsManager.instance.contentCardsActionListener?.onContentCardDismissed(context, removedCard)
@@ -81,6 +145,17 @@ open class ContentCardAdapter(
             cardData[position].isDismissibleByUser
         }
 
+    override fun onAttachedToRecyclerView(recyclerView: RecyclerView) {
+        super.onAttachedToRecyclerView(recyclerView)
+        recyclerView.addOnScrollListener(imagePrefetchScrollListener)
+    }
+
+    override fun onDetachedFromRecyclerView(recyclerView: RecyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView)
+        recyclerView.removeOnScrollListener(imagePrefetchScrollListener)
+        imagePrefetcher.cancelAll()
+    }
+
     override fun onViewAttachedToWindow(holder: ContentCardViewHolder) {
         // Note that onViewAttachedToWindow() is called right before a view is "visible".
         // I.e. the Layout Manager has not yet updated its "first/last visible item position"
@@ -101,7 +176,12 @@ open class ContentCardAdapter(
             }
             return
         }
-        logImpression(getCardAtIndex(adapterPosition))
+        visibilityTracker.setPositionVisible(adapterPosition, true)?.let { logImpressionWithoutCheck(it) }
+        getCardAtIndex(adapterPosition)?.let {
+            if (!it.viewed) {
+                it.viewed = true
+            }
+        }
     }
 
     override fun onViewDetachedFromWindow(holder: ContentCardViewHolder) {
@@ -131,34 +211,89 @@ open class ContentCardAdapter(
             return
         }
 
+        visibilityTracker.setPositionVisible(adapterPosition, false)
+
         // Get the card at this adapter position
         // If the card is null, then there's nothing to notify or update
         val cardAtPosition = getCardAtIndex(adapterPosition) ?: return
 
         if (!cardAtPosition.isIndicatorHighlighted) {
             cardAtPosition.isIndicatorHighlighted = true
+            cardFingerprints[cardAtPosition.id] = ContentCardFingerprint(cardAtPosition)
 
             // Mark as changed
-            handler.post { notifyItemChanged(adapterPosition) }
+            handler.post { notifyItemChanged(adapterPosition, ContentCardChangePayload.INDICATOR_CHANGED) }
         }
     }
 
     override fun getItemId(position: Int): Long {
         val card = getCardAtIndex(position)
-        return card?.id?.hashCode()?.toLong() ?: 0
+        return card?.id?.let { ContentCardStableIds.getStableId(it) } ?: 0
     }
 
     @Synchronized
     fun replaceCards(newCardData: List<Card>) {
-        val diffCallback = CardListDiffCallback(cardData, newCardData)
+        val diffCallback = CardListDiffCallback(cardData, newCardData, cardFingerprints)
         val diffResult = DiffUtil.calculateDiff(diffCallback)
+        applyDiffResult(newCardData, diffCallback.newFingerprints, diffResult)
+    }
+
+    /**
+     * Replaces the cards in this adapter, calculating the [DiffUtil.DiffResult] on a background
+     * thread. Only the dispatch of the updates to this adapter happens on the main thread.
+     *
+     * Must be called from the main thread. If the calling coroutine is cancelled while the diff is
+     * being calculated, the adapter is left unchanged. If the cards in this adapter change while the
+     * diff is being calculated, the diff is discarded and [replaceCards] is used instead.
+     */
+    suspend fun replaceCardsAsync(newCardData: List<Card>) {
+        val oldCardData = cardData.toList()
+        val oldFingerprints = cardFingerprints.toMap()
+        val versionAtDiffStart = cardDataVersion
+        val (diffCallback, diffResult) =
+            withContext(Dispatchers.Default) {
+                val callback = CardListDiffCallback(oldCardData, newCardData, oldFingerprints)
+                callback to DiffUtil.calculateDiff(callback)
+            }
+        if (versionAtDiffStart != cardDataVersion) {
+            brazelog(V) { "Cards changed while calculating the diff in the background. Recalculating on the main thread." }
+            replaceCards(newCardData)
+            return
+        }
+        applyDiffResult(newCardData, diffCallback.newFingerprints, diffResult)
+    }
+
+    @Synchronized
+    private fun applyDiffResult(
+        newCardData: List<Card>,
+        newFingerprints: List<ContentCardFingerprint>,
+        diffResult: DiffUtil.DiffResult,
+    ) {
         cardData.clear()
         cardData.addAll(newCardData)
+        cardFingerprints = newCardData.indices.associateTo(mutableMapOf()) { newCardData[it].id to newFingerprints[it] }
+        onCardDataChanged()
 
         // The diff dispatch will call the adapter notify methods
         diffResult.dispatchUpdatesTo(this)
     }
 
+    /**
+     * Adds cards to the end of this adapter without diffing the existing cards, for example
+     * when the next page of a [com.braze.ui.contentcards.PagedContentCardList] is loaded.
+     */
+    @Synchronized
+    fun appendCards(newCards: List<Card>) {
+        if (newCards.isEmpty()) {
+            return
+        }
+        val insertPosition = cardData.size
+        cardData.addAll(newCards)
+        newCards.forEach { cardFingerprints[it.id] = ContentCardFingerprint(it) }
+        onCardDataChanged()
+        notifyItemRangeInserted(insertPosition, newCards.size)
+    }
+
     /**
      * Marks every on-screen card as read.
      */
@@ -186,13 +321,14 @@ open class ContentCardAdapter(
             val card = getCardAtIndex(i)
             if (card != null) {
                 card.isIndicatorHighlighted = true
+                cardFingerprints[card.id] = ContentCardFingerprint(card)
             }
         }
         handler.post {
             // We add 1 since the number of items since if indices 0 & 1
             // were changed, then a total of 2 items were changed.
             val itemsChangedCount = lastVisibleIndex - firstVisibleIndex + 1
-            notifyItemRangeChanged(firstVisibleIndex, itemsChangedCount)
+            notifyItemRangeChanged(firstVisibleIndex, itemsChangedCount, ContentCardChangePayload.INDICATOR_CHANGED)
         }
     }
 
@@ -243,10 +379,8 @@ open class ContentCardAdapter(
         if (card == null) {
             return
         }
-        if (!impressedCardIdsInternal.contains(card.id)) {
-            card.logImpression()
-            impressedCardIdsInternal.add(card.id)
-            brazelog(V) { "Logged impression for card ${card.id}" }
+        if (visibilityTracker.markImpressed(card.id)) {
+            logImpressionWithoutCheck(card)
         } else {
             brazelog(V) { "Already counted impression for card ${card.id}" }
         }
@@ -255,16 +389,50 @@ open class ContentCardAdapter(
         }
     }
 
+    /**
+     * Returns the impressed cards in a compact form for saved instance state. See [restoreImpressions].
+     */
+    fun saveImpressions(): LongArray = visibilityTracker.saveImpressions()
+
+    /**
+     * Restores the impressions saved by [saveImpressions], so that restored cards don't log another impression.
+     */
+    fun restoreImpressions(impressions: LongArray) {
+        visibilityTracker.restoreImpressions(impressions)
+    }
+
+    private fun logImpressionWithoutCheck(card: Card) {
+        card.logImpression()
+        brazelog(V) { "Logged impression for card ${card.id}" }
+    }
+
+    /**
+     * Must be called after every change to [cardData].
+     */
+    private fun onCardDataChanged() {
+        cardDataVersion++
+        visibilityTracker.setCards(cardData.toList())
+    }
+
     private fun isInvalidIndex(index: Int) = index < 0 || index >= cardData.size
 
     /**
-     * A [Card] based implementation of the [DiffUtil.Callback]. This implementation assumes cards with the same id
-     * are equivalent content-wise and visually.
+     * A [Card] based implementation of the [DiffUtil.Callback]. Cards with the same id are the same item.
+     * Their contents are compared through their [ContentCardFingerprint], and [getChangePayload] returns a
+     * [ContentCardChangePayload] so that only the changed fields are rebound.
+     *
+     * @param oldFingerprints The fingerprints of [oldCards] as they were last bound, keyed by card id.
      */
     private class CardListDiffCallback(
         private val oldCards: List<Card>,
         private val newCards: List<Card>,
+        private val oldFingerprints: Map<String, ContentCardFingerprint>,
     ) : DiffUtil.Callback() {
+        /**
+         * The fingerprints of [newCards], computed once per card and in the same order.
+         */
+        val newFingerprints: List<ContentCardFingerprint> = newCards.map { ContentCardFingerprint(it) }
+
         override fun getOldListSize() = oldCards.size
 
         override fun getNewListSize() = newCards.size
@@ -277,7 +445,17 @@ open class ContentCardAdapter(
         override fun areContentsTheSame(
             oldItemPosition: Int,
             newItemPosition: Int,
-        ) = doItemsShareIds(oldItemPosition, newItemPosition)
+        ) = getOldFingerprint(oldItemPosition) == newFingerprints[newItemPosition]
+
+        override fun getChangePayload(
+            oldItemPosition: Int,
+            newItemPosition: Int,
+        ): Any? = getOldFingerprint(oldItemPosition).getChangePayload(newFingerprints[newItemPosition])
+
+        private fun getOldFingerprint(oldItemPosition: Int): ContentCardFingerprint {
+            val oldCard = oldCards[oldItemPosition]
+            return oldFingerprints[oldCard.id] ?: ContentCardFingerprint(oldCard)
+        }
 
         private fun doItemsShareIds(
             oldItemPosition: Int,
@@ -8,6 +8,7 @@ import androidx.annotation.VisibleForTesting
 import com.braze.enums.CardType
 import com.braze.enums.CardType.Companion.fromValue
 import com.braze.models.cards.Card
+import com.braze.ui.contentcards.recycler.ContentCardChangePayload
 import com.braze.ui.contentcards.view.BaseContentCardView
 import com.braze.ui.contentcards.view.CaptionedImageContentCardView
 import com.braze.ui.contentcards.view.ContentCardViewHolder
@@ -15,12 +16,14 @@ import com.braze.ui.contentcards.view.DefaultContentCardView
 import com.braze.ui.contentcards.view.ImageOnlyContentCardView
 import com.braze.ui.contentcards.view.ShortNewsContentCardView
 import com.braze.ui.contentcards.view.TextAnnouncementContentCardView
+import java.util.concurrent.ConcurrentHashMap
 
 open class DefaultContentCardsViewBindingHandler : IContentCardsViewBindingHandler {
     /**
-     * A cache for the views used in binding the items in the [RecyclerView].
+     * A cache for the views used in binding the items in the [RecyclerView]. Concurrent, since view
+     * holders may be pre-inflated on a background thread.
      */
-    private val contentCardViewCache: MutableMap<CardType, BaseContentCardView<*>> = mutableMapOf()
+    private val contentCardViewCache: MutableMap<CardType, BaseContentCardView<*>> = ConcurrentHashMap()
 
     override fun onCreateViewHolder(
         context: Context,
@@ -50,6 +53,25 @@ open class DefaultContentCardsViewBindingHandler : IContentCardsViewBindingHandl
         contentCardView.bindViewHolder(viewHolder, cardAtPosition)
     }
 
+    override fun onBindViewHolderChanges(
+        context: Context,
+        cards: List<Card>,
+        viewHolder: ContentCardViewHolder,
+        adapterPosition: Int,
+        payload: ContentCardChangePayload,
+    ) {
+        if (adapterPosition < 0 || adapterPosition >= cards.size) {
+            return
+        }
+        val cardAtPosition = cards[adapterPosition]
+        val contentCardView =
+            getContentCardsViewFromCache(
+                context,
+                cardAtPosition.cardType,
+            )
+        contentCardView.bindViewHolderChanges(viewHolder, cardAtPosition, payload)
+    }
+
     override fun getItemViewType(
         context: Context,
         cards: List<Card>,
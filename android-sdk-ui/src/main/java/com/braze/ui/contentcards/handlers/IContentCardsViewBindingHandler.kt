@@ -4,6 +4,7 @@ import android.content.Context
 import android.os.Parcelable
 import android.view.ViewGroup
 import com.braze.models.cards.Card
+import com.braze.ui.contentcards.recycler.ContentCardChangePayload
 import com.braze.ui.contentcards.view.ContentCardViewHolder
 
 /**
@@ -51,6 +52,28 @@ interface IContentCardsViewBindingHandler : Parcelable {
         adapterPosition: Int,
     )
 
+    /**
+     * Called to update only the fields described by [payload] of an already bound
+     * [ContentCardViewHolder], for example when a card is marked as read. Defaults to a full
+     * [onBindViewHolder].
+     *
+     * @see RecyclerView.Adapter.onBindViewHolder
+     * @param context The application context.
+     * @param cards The collection of card items in the adapter. Should not be modified.
+     * @param viewHolder The [ContentCardViewHolder] which should be updated.
+     * @param adapterPosition The position of the item within the adapter's card items.
+     * @param payload The fields of the card that changed since it was last bound.
+     */
+    fun onBindViewHolderChanges(
+        context: Context,
+        cards: List<Card>,
+        viewHolder: ContentCardViewHolder,
+        adapterPosition: Int,
+        payload: ContentCardChangePayload,
+    ) {
+        onBindViewHolder(context, cards, viewHolder, adapterPosition)
+    }
+
     /**
      * Returns the view type of the item at the given position for the purposes of view recycling purposes.
      *
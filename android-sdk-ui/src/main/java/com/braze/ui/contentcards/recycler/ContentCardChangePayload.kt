@@ -0,0 +1,55 @@
+package com.braze.ui.contentcards.recycler
+
+import com.braze.models.cards.Card
+
+/**
+ * Describes which rendered fields of a [Card] changed. Passed as the payload of
+ * [androidx.recyclerview.widget.RecyclerView.Adapter.notifyItemChanged] so that only
+ * those fields are rebound.
+ *
+ * @param isIndicatorChanged Whether [Card.isIndicatorHighlighted] changed.
+ * @param isPinnedChanged Whether [Card.isPinned] changed.
+ * @param isImageChanged Whether the image url of the card changed.
+ * @param isOtherContentChanged Whether any other rendered field changed. When true,
+ * the card should be fully rebound.
+ */
+class ContentCardChangePayload(
+    val isIndicatorChanged: Boolean = false,
+    val isPinnedChanged: Boolean = false,
+    val isImageChanged: Boolean = false,
+    val isOtherContentChanged: Boolean = false,
+) {
+    /**
+     * @return A payload containing the changes of both this payload and [other].
+     */
+    fun merge(other: ContentCardChangePayload) =
+        ContentCardChangePayload(
+            isIndicatorChanged = isIndicatorChanged || other.isIndicatorChanged,
+            isPinnedChanged = isPinnedChanged || other.isPinnedChanged,
+            isImageChanged = isImageChanged || other.isImageChanged,
+            isOtherContentChanged = isOtherContentChanged || other.isOtherContentChanged,
+        )
+
+    companion object {
+        /**
+         * A payload for when only the read indicator of a card changed.
+         */
+        @JvmField
+        val INDICATOR_CHANGED = ContentCardChangePayload(isIndicatorChanged = true)
+
+        /**
+         * Merges the payloads passed to
+         * [androidx.recyclerview.widget.RecyclerView.Adapter.onBindViewHolder].
+         *
+         * @return The merged payload, or null if [payloads] is empty or contains anything other than a
+         * [ContentCardChangePayload], in which case the card should be fully rebound.
+         */
+        @JvmStatic
+        fun fromPayloads(payloads: List<Any>): ContentCardChangePayload? {
+            if (payloads.isEmpty() || payloads.any { it !is ContentCardChangePayload }) {
+                return null
+            }
+            return payloads.filterIsInstance<ContentCardChangePayload>().reduce { merged, payload -> merged.merge(payload) }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.braze.ui.contentcards.recycler
+
+import com.braze.models.cards.CaptionedImageCard
+import com.braze.models.cards.Card
+import com.braze.models.cards.ImageOnlyCard
+import com.braze.models.cards.ShortNewsCard
+import com.braze.models.cards.TextAnnouncementCard
+
+/**
+ * A snapshot of the fields of a [Card] that affect how it is rendered. Computed once per card
+ * so that comparing two versions of a card with the same id is cheap.
+ */
+class ContentCardFingerprint(
+    card: Card,
+) {
+    val isIndicatorHighlighted = card.isIndicatorHighlighted
+    val isPinned = card.isPinned
+    val imageUrl: String? = card.getImageUrl()
+
+    /**
+     * A hash over every other rendered field of the card.
+     */
+    val contentHash: Int = card.getRenderedContent().hashCode()
+
+    /**
+     * @return A [ContentCardChangePayload] describing the fields that differ between this
+     * fingerprint and [newFingerprint], or null if there is no difference.
+     */
+    fun getChangePayload(newFingerprint: ContentCardFingerprint): ContentCardChangePayload? {
+        if (this == newFingerprint) {
+            return null
+        }
+        return ContentCardChangePayload(
+            isIndicatorChanged = isIndicatorHighlighted != newFingerprint.isIndicatorHighlighted,
+            isPinnedChanged = isPinned != newFingerprint.isPinned,
+            isImageChanged = imageUrl != newFingerprint.imageUrl,
+            isOtherContentChanged = contentHash != newFingerprint.contentHash,
+        )
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is ContentCardFingerprint) return false
+        return isIndicatorHighlighted == other.isIndicatorHighlighted &&
+            isPinned == other.isPinned &&
+            imageUrl == other.imageUrl &&
+            contentHash == other.contentHash
+    }
+
+    override fun hashCode(): Int {
+        var result = isIndicatorHighlighted.hashCode()
+        result = 31 * result + isPinned.hashCode()
+        result = 31 * result + (imageUrl?.hashCode() ?: 0)
+        result = 31 * result + contentHash
+        return result
+    }
+
+    companion object {
+        private fun Card.getImageUrl(): String? =
+            when (this) {
+                is CaptionedImageCard -> imageUrl
+                is ImageOnlyCard -> imageUrl
+                is ShortNewsCard -> imageUrl
+                else -> null
+            }
+
+        private fun Card.getRenderedContent(): List<Any?> {
+            val commonContent = listOf(cardType, url, isDismissibleByUser)
+            val typeContent =
+                when (this) {
+                    is CaptionedImageCard -> listOf(title, description, domain, aspectRatio, altImageText)
+                    is ImageOnlyCard -> listOf(aspectRatio, altImageText)
+                    is ShortNewsCard -> listOf(title, description, domain, altImageText)
+                    is TextAnnouncementCard -> listOf(title, description, domain)
+                    else -> emptyList()
+                }
+            return commonContent + typeContent
+        }
+    }
+}
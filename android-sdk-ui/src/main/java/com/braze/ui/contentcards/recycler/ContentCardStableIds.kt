@@ -0,0 +1,22 @@
+package com.braze.ui.contentcards.recycler
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Assigns each card id a unique [Long] for [androidx.recyclerview.widget.RecyclerView.Adapter.getItemId].
+ * Unlike the hash code of the id, two different card ids never get the same value. Values are
+ * stable for the life of the process, so they match across adapters and fragments.
+ */
+object ContentCardStableIds {
+    private val stableIds = ConcurrentHashMap<String, Long>()
+
+    // Starts at 1, since 0 is returned for positions without a card
+    private val nextStableId = AtomicLong(1)
+
+    /**
+     * Returns the stable id of [cardId], assigning one on first use.
+     */
+    @JvmStatic
+    fun getStableId(cardId: String): Long = stableIds.getOrPut(cardId) { nextStableId.getAndIncrement() }
+}
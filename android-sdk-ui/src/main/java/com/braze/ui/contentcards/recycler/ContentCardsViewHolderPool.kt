@@ -0,0 +1,207 @@
+package com.braze.ui.contentcards.recycler
+
+import android.content.Context
+import android.content.ContextWrapper
+import android.view.ViewGroup
+import android.widget.FrameLayout
+import androidx.annotation.MainThread
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleEventObserver
+import androidx.lifecycle.LifecycleOwner
+import androidx.recyclerview.widget.RecyclerView
+import com.braze.Braze
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.enums.CardType
+import com.braze.models.cards.Card
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.ui.contentcards.handlers.IContentCardsViewBindingHandler
+import com.braze.ui.contentcards.view.ContentCardViewHolder
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import java.lang.ref.WeakReference
+
+/**
+ * A [RecyclerView.RecycledViewPool] of Content Card view holders shared by every
+ * [com.braze.ui.contentcards.ContentCardsFragment] of an activity, which can be filled ahead of time
+ * by inflating view holders on a background thread with [preInflate].
+ *
+ * The pool belongs to one [Context] and one [IContentCardsViewBindingHandler] class at a time, since
+ * its view holders are inflated with the theme of that context and the layouts of that handler.
+ * Asking for the pool with another context or handler class replaces it.
+ *
+ * The pool is dropped when the [Lifecycle] of its context is destroyed, so it never keeps the views
+ * of a destroyed activity alive. Contexts without a [Lifecycle] get a pool that isn't shared.
+ *
+ * All functions must be called on the main thread.
+ */
+object ContentCardsViewHolderPool {
+    const val DEFAULT_PRE_INFLATED_CARD_COUNT = 6
+    const val DEFAULT_MAX_RECYCLED_VIEWS_PER_TYPE = 6
+
+    /**
+     * The number of cached cards, from the top of the feed, that [preInflate] inflates view holders
+     * for. Defaults to [DEFAULT_PRE_INFLATED_CARD_COUNT].
+     */
+    @JvmStatic
+    @Volatile
+    var preInflatedCardCount = DEFAULT_PRE_INFLATED_CARD_COUNT
+
+    /**
+     * The number of view holders of each view type the pool keeps. Applies to pools created after it
+     * is set. Defaults to [DEFAULT_MAX_RECYCLED_VIEWS_PER_TYPE].
+     */
+    @JvmStatic
+    @Volatile
+    var maxRecycledViewsPerType = DEFAULT_MAX_RECYCLED_VIEWS_PER_TYPE
+
+    private var recycledViewPool: RecyclerView.RecycledViewPool? = null
+    private var poolContext: WeakReference<Context>? = null
+    private var poolBindingHandlerClass: Class<*>? = null
+    private var poolLifecycle: Lifecycle? = null
+    private val poolLifecycleObserver =
+        LifecycleEventObserver { _, event ->
+            if (event == Lifecycle.Event.ON_DESTROY) {
+                brazelog(V) { "Dropping the Content Card view holder pool of a destroyed context." }
+                clear()
+            }
+        }
+
+    /** Incremented whenever the pool is replaced, so that late pre-inflation results are dropped. */
+    private var poolGeneration = 0
+
+    /**
+     * Returns the shared pool for [context] and the class of [bindingHandler].
+     */
+    @MainThread
+    @JvmStatic
+    fun getRecycledViewPool(
+        context: Context,
+        bindingHandler: IContentCardsViewBindingHandler,
+    ): RecyclerView.RecycledViewPool {
+        val pool = recycledViewPool
+        if (pool != null && poolContext?.get() === context && poolBindingHandlerClass == bindingHandler.javaClass) {
+            return pool
+        }
+        val maxViewsPerType = maxRecycledViewsPerType
+        val newPool =
+            RecyclerView.RecycledViewPool().also {
+                // The view types of the default binding handler
+                CardType.entries.forEach { cardType -> it.setMaxRecycledViews(cardType.value, maxViewsPerType) }
+            }
+        val lifecycle = context.findLifecycle()
+        if (lifecycle == null || lifecycle.currentState == Lifecycle.State.DESTROYED) {
+            return newPool
+        }
+        clear()
+        recycledViewPool = newPool
+        poolContext = WeakReference(context)
+        poolBindingHandlerClass = bindingHandler.javaClass
+        poolLifecycle = lifecycle
+        lifecycle.addObserver(poolLifecycleObserver)
+        return newPool
+    }
+
+    /**
+     * Drops the pool if it belongs to [context]. The pool is dropped on its own when the [Lifecycle]
+     * of [context] is destroyed.
+     */
+    @MainThread
+    @JvmStatic
+    fun release(context: Context) {
+        if (poolContext?.get() === context) {
+            clear()
+        }
+    }
+
+    /**
+     * Inflates view holders for the first [preInflatedCardCount] cached cards on a background thread
+     * and adds them to the pool of [context] and [bindingHandler].
+     *
+     * [bindingHandler] must be safe to call off the main thread.
+     */
+    @MainThread
+    @JvmStatic
+    fun preInflate(
+        context: Context,
+        bindingHandler: IContentCardsViewBindingHandler,
+    ) {
+        val pool = getRecycledViewPool(context, bindingHandler)
+        if (pool !== recycledViewPool) {
+            // Nothing shares a pool that isn't kept
+            return
+        }
+        val generation = poolGeneration
+        val cardCount = preInflatedCardCount
+        val maxViewsPerType = maxRecycledViewsPerType
+        BrazeCoroutineScope.launch(Dispatchers.Default) {
+            val viewHolders =
+                try {
+                    val cards = Braze.getInstance(context).getCachedContentCards()?.take(cardCount).orEmpty()
+                    val adapter = PreInflationAdapter(context, cards, bindingHandler)
+                    val parent = FrameLayout(context)
+                    cards.indices.map { position ->
+                        adapter.createViewHolder(parent, bindingHandler.getItemViewType(context, cards, position))
+                    }
+                } catch (e: Exception) {
+                    brazelog(E, e) { "Failed to pre-inflate Content Card view holders." }
+                    return@launch
+                }
+            withContext(Dispatchers.Main) {
+                if (generation != poolGeneration) {
+                    return@withContext
+                }
+                viewHolders.forEach {
+                    pool.setMaxRecycledViews(it.itemViewType, maxViewsPerType)
+                    pool.putRecycledView(it)
+                }
+                brazelog(V) { "Pre-inflated ${viewHolders.size} Content Card view holders." }
+            }
+        }
+    }
+
+    private fun clear() {
+        poolLifecycle?.removeObserver(poolLifecycleObserver)
+        poolLifecycle = null
+        recycledViewPool?.clear()
+        recycledViewPool = null
+        poolContext = null
+        poolBindingHandlerClass = null
+        poolGeneration++
+    }
+
+    private fun Context.findLifecycle(): Lifecycle? {
+        var context: Context? = this
+        while (context != null) {
+            if (context is LifecycleOwner) {
+                return context.lifecycle
+            }
+            context = (context as? ContextWrapper)?.baseContext
+        }
+        return null
+    }
+
+    /**
+     * Creates view holders through [RecyclerView.Adapter.createViewHolder], which records their view
+     * type for the pool.
+     */
+    private class PreInflationAdapter(
+        private val context: Context,
+        private val cards: List<Card>,
+        private val bindingHandler: IContentCardsViewBindingHandler,
+    ) : RecyclerView.Adapter<ContentCardViewHolder>() {
+        override fun onCreateViewHolder(
+            viewGroup: ViewGroup,
+            viewType: Int,
+        ) = bindingHandler.onCreateViewHolder(context, cards, viewGroup, viewType)
+
+        override fun onBindViewHolder(
+            viewHolder: ContentCardViewHolder,
+            position: Int,
+        ) = Unit
+
+        override fun getItemCount() = 0
+    }
+}
@@ -10,6 +10,7 @@ import com.braze.ui.R
 import com.braze.ui.actions.IAction
 import com.braze.ui.contentcards.BrazeContentCardUtils
 import com.braze.ui.contentcards.managers.BrazeContentCardsManager.Companion.instance
+import com.braze.ui.contentcards.recycler.ContentCardChangePayload
 import com.braze.ui.widget.BaseCardView
 
 /**
@@ -25,10 +26,61 @@ abstract class BaseContentCardView<T : Card>(
         card: Card,
     ) {
         viewHolder.setPinnedIconVisible(card.isPinned)
+        bindUnreadIndicator(viewHolder, card)
+        bindCardAction(viewHolder, card)
+    }
+
+    /**
+     * Updates only the fields of an already bound [ContentCardViewHolder] described by [payload].
+     * Falls back to [bindViewHolder] if any field other than the read indicator, pinned state or
+     * image changed.
+     */
+    open fun bindViewHolderChanges(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+        payload: ContentCardChangePayload,
+    ) {
+        if (payload.isOtherContentChanged) {
+            bindViewHolder(viewHolder, card)
+            return
+        }
+        if (payload.isPinnedChanged) {
+            viewHolder.setPinnedIconVisible(card.isPinned)
+        }
+        if (payload.isIndicatorChanged) {
+            bindUnreadIndicator(viewHolder, card)
+        }
+        if (payload.isImageChanged) {
+            bindCardImage(viewHolder, card)
+        }
+        // The card instance may have been replaced by an update, so the click listener is always rebound
+        bindCardAction(viewHolder, card)
+    }
+
+    /**
+     * Binds the image of the card, if the card type has one.
+     */
+    protected open fun bindCardImage(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+    ) {
+        // Card types without an image have nothing to bind
+    }
+
+    private fun bindUnreadIndicator(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+    ) {
         viewHolder.setUnreadBarVisible(
             configurationProvider.isContentCardsUnreadVisualIndicatorEnabled &&
                 !card.isIndicatorHighlighted,
         )
+    }
+
+    private fun bindCardAction(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+    ) {
         val cardAction = BrazeContentCardUtils.getUriActionForCard(card)
         viewHolder.itemView.setOnClickListener {
             handleCardClick(
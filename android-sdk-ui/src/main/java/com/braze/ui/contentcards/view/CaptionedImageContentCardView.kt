@@ -49,14 +49,23 @@ open class CaptionedImageContentCardView(
                     it,
                 )
             }
+            bindCardImage(viewHolder, card)
+            viewHolder.itemView.contentDescription = "${card.title} .  ${card.description}"
+        }
+    }
+
+    override fun bindCardImage(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+    ) {
+        if (card is CaptionedImageCard) {
             setOptionalCardImage(
-                captionedImageViewHolder.imageView,
+                (viewHolder as ViewHolder).imageView,
                 card.aspectRatio,
                 card.imageUrl,
                 card.altImageText,
                 card,
             )
-            viewHolder.itemView.contentDescription = "${card.title} .  ${card.description}"
         }
     }
 }
@@ -5,6 +5,7 @@ import android.view.LayoutInflater
 import android.view.ViewGroup
 import com.braze.models.cards.Card
 import com.braze.ui.R
+import com.braze.ui.contentcards.recycler.ContentCardChangePayload
 
 /**
  * A view for when the card type is unknown or otherwise can't be rendered.
@@ -26,4 +27,12 @@ open class DefaultContentCardView(
     ) {
         // Do nothing here since default cards are not meant to be displayed.
     }
+
+    override fun bindViewHolderChanges(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+        payload: ContentCardChangePayload,
+    ) {
+        // Do nothing here since default cards are not meant to be displayed.
+    }
 }
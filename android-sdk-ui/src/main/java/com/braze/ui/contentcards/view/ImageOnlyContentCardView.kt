@@ -38,9 +38,17 @@ open class ImageOnlyContentCardView(
     ) {
         if (card is ImageOnlyCard) {
             super.bindViewHolder(viewHolder, card)
-            val imageOnlyViewHolder = viewHolder as ViewHolder
+            bindCardImage(viewHolder, card)
+        }
+    }
+
+    override fun bindCardImage(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+    ) {
+        if (card is ImageOnlyCard) {
             setOptionalCardImage(
-                imageOnlyViewHolder.imageView,
+                (viewHolder as ViewHolder).imageView,
                 card.aspectRatio,
                 card.imageUrl,
                 card.altImageText,
@@ -48,15 +48,24 @@ open class ShortNewsContentCardView(
             val actionHintText = if (card.domain.isNullOrBlank()) card.url else card.domain
             actionHintText?.let { shortNewsCardViewHolder.setActionHintText(it) }
 
+            bindCardImage(viewHolder, card)
+            safeSetClipToOutline(shortNewsCardViewHolder.imageView)
+            viewHolder.itemView.contentDescription = "${card.title} . ${card.description}"
+        }
+    }
+
+    override fun bindCardImage(
+        viewHolder: ContentCardViewHolder,
+        card: Card,
+    ) {
+        if (card is ShortNewsCard) {
             setOptionalCardImage(
-                shortNewsCardViewHolder.imageView,
+                (viewHolder as ViewHolder).imageView,
                 ASPECT_RATIO,
                 card.imageUrl,
                 card.altImageText,
                 card,
             )
-            safeSetClipToOutline(shortNewsCardViewHolder.imageView)
-            viewHolder.itemView.contentDescription = "${card.title} . ${card.description}"
         }
     }
 
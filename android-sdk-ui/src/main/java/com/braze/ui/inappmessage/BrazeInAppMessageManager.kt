@@ -33,15 +33,20 @@ import com.braze.ui.actions.brazeactions.containsAnyPushPermissionBrazeActions
 import com.braze.ui.actions.brazeactions.containsInvalidBrazeAction
 import com.braze.ui.inappmessage.listeners.DefaultInAppMessageViewLifecycleListener
 import com.braze.ui.inappmessage.listeners.IInAppMessageViewLifecycleListener
+import com.braze.ui.inappmessage.utils.BackgroundInAppMessagePreparer.cancelInAppMessagePreparation
+import com.braze.ui.inappmessage.utils.BackgroundInAppMessagePreparer.prefetchInAppMessages
 import com.braze.ui.inappmessage.utils.BackgroundInAppMessagePreparer.prepareInAppMessageForDisplay
 import com.braze.ui.inappmessage.views.IInAppMessageImmersiveView
 import com.braze.ui.inappmessage.views.IInAppMessageView
 import com.braze.ui.inappmessage.views.InAppMessageFullView
 import com.braze.ui.inappmessage.views.InAppMessageHtmlBaseView
+import com.braze.ui.support.BridgeJavascriptCache
+import com.braze.ui.support.IconTypefaceCache
 import com.braze.ui.support.isCurrentOrientationValid
 import com.braze.ui.support.isRunningOnTablet
 import com.braze.ui.support.setActivityRequestedOrientation
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.launch
 import java.lang.ref.WeakReference
 import java.util.Stack
@@ -52,11 +57,12 @@ import kotlin.concurrent.withLock
 /**
  * This class is used to display in-app messages that are either sent from Braze
  * or are created natively in the host app. It will only show one in-app message at a time and will
- * place all other in-app messages onto a stack. The [BrazeInAppMessageManager] will also keep track of in-app
+ * place all other in-app messages onto a queue. The [BrazeInAppMessageManager] will also keep track of in-app
  * impressions and clicks, which can be viewed on the dashboard.
  *
- * If there is already an in-app message being displayed, the new in-app message will be put onto the top of the
- * stack and can be displayed at a later time. If there is no in-app message being displayed, then the
+ * If there is already an in-app message being displayed, the new in-app message will be put onto the
+ * [inAppMessageQueue] and can be displayed at a later time. The queue is ordered by priority; see
+ * [DefaultInAppMessageQueue] and [setCustomInAppMessageQueue]. If there is no in-app message being displayed, then the
  * [IInAppMessageManagerListener.beforeInAppMessageDisplayed]
  * will be called. The [InAppMessageOperation] return value can be used to
  * control when the in-app message should be displayed. A suggested usage of this method would be to delay
@@ -97,10 +103,18 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
     val displayingInAppMessage = AtomicBoolean(false)
 
     /**
-     * The stack of In-App Messages waiting to be displayed.
+     * A copy of the in-app messages waiting to be displayed, with the next one to be displayed on top.
+     * Changes to the returned [Stack] have no effect on the [inAppMessageQueue].
      */
-    @VisibleForTesting
-    val inAppMessageStack = Stack<IInAppMessage>()
+    @Deprecated(
+        "In-app messages now wait in a priority-ordered queue. Use inAppMessageQueue instead.",
+        ReplaceWith("inAppMessageQueue"),
+    )
+    val inAppMessageStack: Stack<IInAppMessage>
+        get() =
+            Stack<IInAppMessage>().apply {
+                inAppMessageQueue.peek(inAppMessageQueue.size).asReversed().forEach { push(it) }
+            }
     val inAppMessageEventMap = mutableMapOf<IInAppMessage, InAppMessageEvent>()
     private var inAppMessageEventSubscriber: IEventSubscriber<InAppMessageEvent>? = null
     private var sdkDataWipeEventSubscriber: IEventSubscriber<SdkDataWipeEvent>? = null
@@ -131,6 +145,14 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
     @VisibleForTesting
     internal var inAppMessagePendingDisplay: IInAppMessage? = null
 
+    /**
+     * The preparation of [inAppMessagePendingDisplay] while it runs. No other message is requested for
+     * display until it hands the message off to [displayInAppMessage] or fails. Cancelled when the
+     * manager is reset.
+     */
+    @Volatile
+    private var inAppMessagePendingDisplayJob: Job? = null
+
     /**
      * An In-App Message being carried over during the
      * [unregisterInAppMessageManager]
@@ -146,6 +168,13 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
     @VisibleForTesting
     var unregisteredInAppMessage: IInAppMessage? = null
 
+    /**
+     * The number of in-app messages waiting in the [inAppMessageQueue] whose assets are
+     * downloaded ahead of time, so they can be displayed without delay once the currently displayed
+     * in-app message closes. Set to 0 to disable prefetching.
+     */
+    var inAppMessagePrefetchCount = DEFAULT_IN_APP_MESSAGE_PREFETCH_COUNT
+
     /**
      * Gets whether an in-app message is currently displaying on the device.
      */
@@ -197,7 +226,7 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
                 if (displayingInAppMessage.get()) {
                     hideCurrentlyDisplayingInAppMessage(false)
                 }
-                inAppMessageStack.clear()
+                clearInAppMessageQueue()
                 carryoverInAppMessage = null
                 unregisteredInAppMessage = null
             }.also {
@@ -219,6 +248,10 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
             createBrazeUserChangeEventSubscriber().also {
                 getInstance(context).subscribeToChangeUserEvents(it)
             }
+
+        // Load the HTML bridge javascript and icon font off the main thread before the first message needs them
+        BridgeJavascriptCache.prewarm(context)
+        IconTypefaceCache.prewarm(context)
     }
 
     /**
@@ -333,9 +366,29 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
      */
     open fun addInAppMessage(inAppMessage: IInAppMessage?) {
         if (inAppMessage != null) {
-            inAppMessageStack.push(inAppMessage)
+            inAppMessageQueue.push(inAppMessage)
             requestDisplayInAppMessage()
+            prefetchQueuedInAppMessages()
+        }
+    }
+
+    /**
+     * Starts preparing the assets of the next [inAppMessagePrefetchCount] in-app messages
+     * waiting in the [inAppMessageQueue].
+     */
+    private fun prefetchQueuedInAppMessages() {
+        if (inAppMessagePrefetchCount <= 0 || mApplicationContext == null) {
+            return
         }
+        prefetchInAppMessages(inAppMessageQueue.peek(inAppMessagePrefetchCount))
+    }
+
+    /**
+     * Clears the [inAppMessageQueue] and cancels any prefetches of the in-app messages it held.
+     */
+    private fun clearInAppMessageQueue() {
+        inAppMessageQueue.peek(inAppMessageQueue.size).forEach { cancelInAppMessagePreparation(it) }
+        inAppMessageQueue.clear()
     }
 
     /**
@@ -349,17 +402,18 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
         return try {
             val activity = mActivity?.get()
             if (activity == null) {
-                if (!inAppMessageStack.empty()) {
+                val nextInAppMessage = inAppMessageQueue.poll()
+                if (nextInAppMessage != null) {
                     brazelog(W) {
                         "No activity is currently registered to receive in-app messages. Saving in-app " +
                             "message as unregistered in-app message. It will automatically be displayed " +
                             "when the next activity registers to receive in-app messages."
                     }
-                    unregisteredInAppMessage = inAppMessageStack.pop()
+                    unregisteredInAppMessage = nextInAppMessage
                 } else {
                     brazelog {
                         "No activity is currently registered to receive in-app messages and the in-app " +
-                            "message stack is empty. Doing nothing."
+                            "message queue is empty. Doing nothing."
                     }
                 }
                 return false
@@ -368,11 +422,15 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
                 brazelog { "A in-app message is currently being displayed. Ignoring request to display in-app message." }
                 return false
             }
-            if (inAppMessageStack.isEmpty()) {
-                brazelog { "The in-app message stack is empty. No in-app message will be displayed." }
+            if (inAppMessagePendingDisplayJob?.isActive == true) {
+                brazelog { "An in-app message is being prepared for display. Ignoring request to display in-app message." }
+                return false
+            }
+            val inAppMessage = inAppMessageQueue.poll()
+            if (inAppMessage == null) {
+                brazelog { "The in-app message queue is empty. No in-app message will be displayed." }
                 return false
             }
-            val inAppMessage = inAppMessageStack.pop()
             val inAppMessageOperation: InAppMessageOperation =
                 if (!inAppMessage.isControl) {
                     inAppMessageManagerListener.beforeInAppMessageDisplayed(inAppMessage)
@@ -390,9 +448,9 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
                 InAppMessageOperation.DISPLAY_LATER -> {
                     brazelog {
                         "The IInAppMessageManagerListener method beforeInAppMessageDisplayed returned DISPLAY_LATER. The " +
-                            "in-app message will be pushed back onto the stack."
+                            "in-app message will be pushed back onto the queue."
                     }
-                    inAppMessageStack.push(inAppMessage)
+                    inAppMessageQueue.push(inAppMessage)
                     return false
                 }
 
@@ -422,7 +480,18 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
                 }
             }
             inAppMessagePendingDisplay = inAppMessage
-            prepareInAppMessageForDisplay(inAppMessage)
+            val pendingDisplayJob = prepareInAppMessageForDisplay(inAppMessage)
+            inAppMessagePendingDisplayJob = pendingDisplayJob
+            pendingDisplayJob.invokeOnCompletion {
+                // The message never reached display, for example because its assets failed to
+                // download. Move on to the next queued message.
+                if (inAppMessagePendingDisplayJob === pendingDisplayJob) {
+                    inAppMessagePendingDisplayJob = null
+                    BrazeCoroutineScope.launch(Dispatchers.Main) {
+                        requestDisplayInAppMessage()
+                    }
+                }
+            }
             true
         } catch (e: Exception) {
             brazelog(E, e) { "Error running requestDisplayInAppMessage" }
@@ -482,6 +551,9 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
             return false
         }
         brazelog(V) { "Resetting after in-app message close." }
+        val pendingDisplayJob = inAppMessagePendingDisplayJob
+        inAppMessagePendingDisplayJob = null
+        pendingDisplayJob?.cancel()
         inAppMessagePendingDisplay = null
         currentBackEventHandler?.unregister()
         currentBackEventHandler = null
@@ -516,15 +588,19 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
         brazelog(V) {
             "Attempting to display in-app message with payload: ${inAppMessage.forJsonPut().getPrettyPrintedString()}"
         }
+        if (inAppMessage === inAppMessagePendingDisplay) {
+            // The preparation has handed the message off, so a reset must no longer cancel it
+            inAppMessagePendingDisplayJob = null
+        }
 
         // Note: for displayingInAppMessage to be accurate it requires this method does not exit
         // anywhere but the at the end of this try/catch when we know whether we are successfully
         // displaying the in-app message or not.
         if (!displayingInAppMessage.compareAndSet(false, true)) {
             brazelog {
-                "A in-app message is currently being displayed. Adding in-app message back on the stack."
+                "A in-app message is currently being displayed. Adding in-app message back on the queue."
             }
-            inAppMessageStack.push(inAppMessage)
+            inAppMessageQueue.push(inAppMessage)
             return
         }
         try {
@@ -749,7 +825,7 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
                 if (displayingInAppMessage.get()) {
                     hideCurrentlyDisplayingInAppMessage(false)
                 }
-                inAppMessageStack.clear()
+                clearInAppMessageQueue()
                 removeInAppMessageEventMapEntriesForUserId(previousUserId)
                 carryoverInAppMessage = null
                 unregisteredInAppMessage = null
@@ -833,6 +909,7 @@ open class BrazeInAppMessageManager : InAppMessageManagerBase() {
     }
 
     companion object {
+        private const val DEFAULT_IN_APP_MESSAGE_PREFETCH_COUNT = 2
         private val instanceLock = ReentrantLock()
 
         @Volatile
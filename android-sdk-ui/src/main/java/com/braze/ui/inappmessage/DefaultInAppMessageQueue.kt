@@ -0,0 +1,160 @@
+package com.braze.ui.inappmessage
+
+import com.braze.models.inappmessage.IInAppMessage
+import com.braze.support.BrazeLogger.Priority.W
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.support.nowInMilliseconds
+import java.util.concurrent.ConcurrentSkipListSet
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * The default [IInAppMessageQueue]. In-app messages are ordered by priority, highest first,
+ * and then by recency, newest first. With equal priorities this matches the last-in,
+ * first-out behavior of the original in-app message stack.
+ *
+ * The queue is backed by a [ConcurrentSkipListSet] so that concurrent calls to [push] and
+ * [poll] never block each other.
+ *
+ * @param capacity The maximum number of in-app messages held by the queue. Once exceeded,
+ * in-app messages are dropped according to [evictionPolicy]. Defaults to [DEFAULT_CAPACITY],
+ * which leaves the queue unbounded like the original in-app message stack.
+ * @param evictionPolicy Determines which in-app message is dropped when over [capacity].
+ * @param timeToLiveMillis How long an in-app message may wait in the queue before it is
+ * dropped. Only used with [InAppMessageQueueEvictionPolicy.EXPIRE_BY_TTL].
+ * @param priorityProvider Returns the priority of an in-app message. Higher values are
+ * displayed first. Defaults to [getPriorityFromExtras].
+ */
+open class DefaultInAppMessageQueue @JvmOverloads constructor(
+    val capacity: Int = DEFAULT_CAPACITY,
+    val evictionPolicy: InAppMessageQueueEvictionPolicy = InAppMessageQueueEvictionPolicy.DROP_OLDEST,
+    val timeToLiveMillis: Long = DEFAULT_TIME_TO_LIVE_MS,
+    private val priorityProvider: (IInAppMessage) -> Int = ::getPriorityFromExtras,
+) : IInAppMessageQueue {
+    private val entries = ConcurrentSkipListSet(ENTRY_COMPARATOR)
+    private val entryCount = AtomicInteger(0)
+    private val sequence = AtomicLong(0)
+
+    init {
+        require(capacity > 0) { "Capacity must be positive. Got $capacity" }
+    }
+
+    override val size: Int
+        get() = entryCount.get()
+
+    override fun isEmpty(): Boolean = entries.isEmpty()
+
+    override fun push(inAppMessage: IInAppMessage) {
+        if (evictionPolicy == InAppMessageQueueEvictionPolicy.EXPIRE_BY_TTL) {
+            removeExpiredEntries()
+        }
+        entries.add(
+            Entry(
+                inAppMessage = inAppMessage,
+                priority = priorityProvider(inAppMessage),
+                sequence = sequence.incrementAndGet(),
+                enqueuedAt = nowInMilliseconds(),
+            ),
+        )
+        entryCount.incrementAndGet()
+        while (entryCount.get() > capacity) {
+            val evicted = findEntryToEvict() ?: break
+            if (remove(evicted)) {
+                brazelog(W) {
+                    "In-app message queue is over capacity $capacity. Dropping in-app message " +
+                        "with priority ${evicted.priority} using policy $evictionPolicy."
+                }
+            }
+        }
+    }
+
+    override fun poll(): IInAppMessage? {
+        while (true) {
+            val entry = entries.pollFirst() ?: return null
+            entryCount.decrementAndGet()
+            if (evictionPolicy == InAppMessageQueueEvictionPolicy.EXPIRE_BY_TTL && entry.isExpired(nowInMilliseconds())) {
+                brazelog { "Dropping in-app message that has been queued longer than ${timeToLiveMillis}ms." }
+                continue
+            }
+            return entry.inAppMessage
+        }
+    }
+
+    override fun peek(count: Int): List<IInAppMessage> {
+        val now = nowInMilliseconds()
+        return entries
+            .asSequence()
+            .filterNot { evictionPolicy == InAppMessageQueueEvictionPolicy.EXPIRE_BY_TTL && it.isExpired(now) }
+            .take(count)
+            .map { it.inAppMessage }
+            .toList()
+    }
+
+    override fun clear() {
+        while (entries.pollFirst() != null) {
+            entryCount.decrementAndGet()
+        }
+    }
+
+    private fun findEntryToEvict(): Entry? =
+        when (evictionPolicy) {
+            InAppMessageQueueEvictionPolicy.DROP_LOWEST_PRIORITY -> entries.lastOrNull()
+            InAppMessageQueueEvictionPolicy.DROP_OLDEST -> entries.minByOrNull { it.sequence }
+            InAppMessageQueueEvictionPolicy.EXPIRE_BY_TTL -> {
+                removeExpiredEntries()
+                if (entryCount.get() > capacity) entries.minByOrNull { it.sequence } else null
+            }
+        }
+
+    private fun removeExpiredEntries() {
+        val now = nowInMilliseconds()
+        entries.filter { it.isExpired(now) }.forEach { remove(it) }
+    }
+
+    private fun remove(entry: Entry): Boolean {
+        if (entries.remove(entry)) {
+            entryCount.decrementAndGet()
+            return true
+        }
+        return false
+    }
+
+    private fun Entry.isExpired(now: Long) = now - enqueuedAt > timeToLiveMillis
+
+    private class Entry(
+        val inAppMessage: IInAppMessage,
+        val priority: Int,
+        val sequence: Long,
+        val enqueuedAt: Long,
+    )
+
+    companion object {
+        const val DEFAULT_CAPACITY = Int.MAX_VALUE
+        const val DEFAULT_TIME_TO_LIVE_MS = 10 * 60 * 1000L
+        const val DEFAULT_PRIORITY = 0
+
+        /**
+         * The key in [IInAppMessage.extras] read by [getPriorityFromExtras].
+         */
+        const val PRIORITY_EXTRAS_KEY = "braze_in_app_message_priority"
+
+        /**
+         * Highest priority first, then most recently added first.
+         */
+        private val ENTRY_COMPARATOR =
+            Comparator<Entry> { first, second ->
+                when {
+                    first.priority != second.priority -> second.priority.compareTo(first.priority)
+                    else -> second.sequence.compareTo(first.sequence)
+                }
+            }
+
+        /**
+         * Reads an integer priority from the [PRIORITY_EXTRAS_KEY] key-value pair of the in-app message.
+         * Returns [DEFAULT_PRIORITY] if the key is missing or is not an integer.
+         */
+        @JvmStatic
+        fun getPriorityFromExtras(inAppMessage: IInAppMessage): Int =
+            inAppMessage.extras[PRIORITY_EXTRAS_KEY]?.toIntOrNull() ?: DEFAULT_PRIORITY
+    }
+}
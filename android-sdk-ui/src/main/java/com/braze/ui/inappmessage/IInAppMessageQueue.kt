@@ -0,0 +1,44 @@
+package com.braze.ui.inappmessage
+
+import com.braze.models.inappmessage.IInAppMessage
+
+/**
+ * Holds the in-app messages waiting to be displayed by the
+ * [BrazeInAppMessageManager][com.braze.ui.inappmessage.BrazeInAppMessageManager].
+ *
+ * Implementations must be safe to call from multiple threads, since in-app messages are
+ * added from the SDK's event threads while display is requested from the main thread.
+ */
+interface IInAppMessageQueue {
+    /**
+     * The number of in-app messages currently waiting in the queue.
+     */
+    val size: Int
+
+    /**
+     * @return true if no in-app messages are waiting in the queue.
+     */
+    fun isEmpty(): Boolean
+
+    /**
+     * Adds an in-app message to the queue. Implementations may drop other in-app messages
+     * to stay within their capacity.
+     */
+    fun push(inAppMessage: IInAppMessage)
+
+    /**
+     * Removes and returns the next in-app message to display, or null if the queue is empty.
+     */
+    fun poll(): IInAppMessage?
+
+    /**
+     * Returns, without removing them, up to [count] in-app messages in the order they
+     * would be returned by [poll].
+     */
+    fun peek(count: Int): List<IInAppMessage>
+
+    /**
+     * Removes every in-app message from the queue.
+     */
+    fun clear()
+}
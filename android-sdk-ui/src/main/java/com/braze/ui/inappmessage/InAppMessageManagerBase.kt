@@ -110,6 +110,10 @@ open class InAppMessageManagerBase {
     private var customInAppMessageViewWrapperFactory: IInAppMessageViewWrapperFactory? = null
     private var customHtmlInAppMessageActionListener: IHtmlInAppMessageActionListener? = null
 
+    // in-app message queue
+    private val defaultInAppMessageQueue: IInAppMessageQueue = DefaultInAppMessageQueue()
+    private var customInAppMessageQueue: IInAppMessageQueue? = null
+
     /**
      * A custom listener to be fired for control in-app messages.
      *
@@ -135,6 +139,12 @@ open class InAppMessageManagerBase {
     open val inAppMessageAnimationFactory: IInAppMessageAnimationFactory
         get() = customInAppMessageAnimationFactory ?: inAppMessageAnimationFactoryField
 
+    /**
+     * The [IInAppMessageQueue] holding in-app messages waiting to be displayed.
+     */
+    open val inAppMessageQueue: IInAppMessageQueue
+        get() = customInAppMessageQueue ?: defaultInAppMessageQueue
+
     @get:RestrictTo(RestrictTo.Scope.TESTS)
     open val isActivitySet: Boolean
         get() = activity != null
@@ -254,4 +264,25 @@ open class InAppMessageManagerBase {
         brazelog { "Custom IInAppMessageViewWrapperFactory set" }
         customInAppMessageViewWrapperFactory = inAppMessageViewWrapperFactory
     }
+
+    /**
+     * Assigns a custom [IInAppMessageQueue] that will hold in-app messages waiting to be displayed.
+     * Any in-app messages waiting in the current queue are moved to the new queue. To revert back to
+     * the default [DefaultInAppMessageQueue], call this method with null.
+     *
+     * @param inAppMessageQueue A custom [IInAppMessageQueue] or null (to revert back to the default
+     * [IInAppMessageQueue]).
+     */
+    open fun setCustomInAppMessageQueue(inAppMessageQueue: IInAppMessageQueue?) {
+        brazelog { "Custom IInAppMessageQueue set" }
+        val previousQueue = this.inAppMessageQueue
+        customInAppMessageQueue = inAppMessageQueue
+        val newQueue = this.inAppMessageQueue
+        if (previousQueue === newQueue) {
+            return
+        }
+        // Drained in display order, so re-add in reverse to keep the most recent message on top
+        val pendingInAppMessages = generateSequence { previousQueue.poll() }.toList()
+        pendingInAppMessages.asReversed().forEach { newQueue.push(it) }
+    }
 }
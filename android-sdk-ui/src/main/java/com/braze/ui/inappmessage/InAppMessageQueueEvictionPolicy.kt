@@ -0,0 +1,19 @@
+package com.braze.ui.inappmessage
+
+/**
+ * Specifies which in-app message a [DefaultInAppMessageQueue] should drop once it
+ * grows past its capacity.
+ */
+enum class InAppMessageQueueEvictionPolicy {
+    /** Drop the in-app message that was added to the queue the longest time ago. */
+    DROP_OLDEST,
+
+    /** Drop the lowest priority in-app message. Ties are broken by dropping the oldest. */
+    DROP_LOWEST_PRIORITY,
+
+    /**
+     * Drop every in-app message that has been waiting longer than the queue's time to live.
+     * If the queue is still over capacity afterwards, the oldest in-app message is dropped.
+     */
+    EXPIRE_BY_TTL,
+}
@@ -20,31 +20,214 @@ import com.braze.support.WebContentUtils.getHtmlInAppMessageAssetCacheDirectory
 import com.braze.support.WebContentUtils.getLocalHtmlUrlFromRemoteUrl
 import com.braze.support.WebContentUtils.replacePrefetchedUrlsWithLocalAssets
 import com.braze.ui.inappmessage.BrazeInAppMessageManager
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.async
+import kotlinx.coroutines.ensureActive
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withPermit
 import kotlinx.coroutines.withContext
 import java.io.File
+import java.util.concurrent.ConcurrentHashMap
 
 object BackgroundInAppMessagePreparer {
+    /**
+     * The maximum number of in-app messages whose assets are prefetched at the same time.
+     */
+    private const val MAX_CONCURRENT_PREFETCHES = 3
+
+    private val prefetchPermits = Semaphore(MAX_CONCURRENT_PREFETCHES)
+
+    /**
+     * Held by preparations of messages about to be displayed. Separate from [prefetchPermits], so that
+     * a message requested for display never waits behind prefetches.
+     */
+    private val displayPermit = Semaphore(1)
+
+    /**
+     * A preparation of [inAppMessage], started either to display or to prefetch it.
+     */
+    private class Preparation(
+        val inAppMessage: IInAppMessage,
+        val isForDisplay: Boolean,
+    ) {
+        lateinit var deferred: Deferred<IInAppMessage?>
+
+        /** Whether the preparation holds its permit, as opposed to waiting for one. */
+        @Volatile
+        var hasStarted = false
+    }
+
+    /**
+     * Preparations that have not yet completed, keyed by [getPreparationKey]. Messages sharing an
+     * asset, such as a prefetched message and the same message triggered again as a new object,
+     * share a single download.
+     */
+    private val inFlightPreparations = ConcurrentHashMap<String, Preparation>()
+
+    /**
+     * The maximum number of remote asset zips whose local directory is remembered.
+     */
+    private const val MAX_REMEMBERED_ZIP_ASSETS = 32
+
+    /**
+     * The asset zips used by this process, keyed by remote zip url, least recently used first. Each
+     * entry is also the lock its download runs under, so messages sharing a zip download it once.
+     */
+    private val zipAssets =
+        object : LinkedHashMap<String, ZipAsset>(MAX_REMEMBERED_ZIP_ASSETS, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, ZipAsset>?) =
+                size > MAX_REMEMBERED_ZIP_ASSETS
+        }
+
+    private class ZipAsset {
+        /** Only accessed while holding this [ZipAsset]'s lock. */
+        var localDirectory: String? = null
+    }
+
     /**
      * @param inAppMessageToPrepare The message to prepare for eventual display.
+     * @return A [Job] that completes once the message has been handed off for display. Cancelling
+     * it stops the message from being displayed.
      */
     @JvmStatic
-    fun prepareInAppMessageForDisplay(inAppMessageToPrepare: IInAppMessage) {
-        BrazeCoroutineScope.launch {
+    fun prepareInAppMessageForDisplay(inAppMessageToPrepare: IInAppMessage): Job {
+        val preparation = getOrStartDisplayPreparation(inAppMessageToPrepare)
+        val displayJob = BrazeCoroutineScope.launch {
             try {
-                val preparedInAppMessage = prepareInAppMessage(inAppMessageToPrepare)
+                val preparedInAppMessage = preparation.await()
                 if (preparedInAppMessage == null) {
                     brazelog(W) {
                         "Cannot display the in-app message because the in-app message was null."
                     }
                 } else {
+                    ensureActive()
                     displayPreparedInAppMessage(preparedInAppMessage)
                 }
+            } catch (e: CancellationException) {
+                brazelog { "In-app message preparation was cancelled. Not displaying in-app message." }
             } catch (e: Exception) {
                 brazelog(E, e) { "Caught error while preparing in app message in background" }
             }
         }
+        displayJob.invokeOnCompletion { cause ->
+            if (cause is CancellationException) {
+                preparation.cancel()
+            }
+        }
+        return displayJob
+    }
+
+    /**
+     * Prepares the assets of the given in-app messages in the background without displaying them,
+     * so that they can be displayed without waiting on downloads once they reach the front of the queue.
+     * Messages whose assets are already being prepared are not prepared again.
+     */
+    @JvmStatic
+    fun prefetchInAppMessages(inAppMessages: List<IInAppMessage>) {
+        inAppMessages
+            .filterNot { it.isControl }
+            .forEach { inAppMessage ->
+                val key = getPreparationKey(inAppMessage)
+                if (!inFlightPreparations.containsKey(key)) {
+                    startPreparation(key, inAppMessage, isForDisplay = false)
+                }
+            }
+    }
+
+    /**
+     * Cancels the in-flight preparation of the given in-app message, if any.
+     */
+    @JvmStatic
+    fun cancelInAppMessagePreparation(inAppMessage: IInAppMessage) {
+        val key = getPreparationKey(inAppMessage)
+        val preparation = inFlightPreparations[key] ?: return
+        if (preparation.inAppMessage === inAppMessage && inFlightPreparations.remove(key, preparation)) {
+            preparation.deferred.cancel()
+        }
+    }
+
+    /**
+     * Returns the preparation that [inAppMessage] is displayed from. An in-flight preparation of the
+     * same assets is reused unless it is a prefetch still waiting for a permit, which is replaced so
+     * that display doesn't wait behind other prefetches.
+     */
+    private fun getOrStartDisplayPreparation(inAppMessage: IInAppMessage): Deferred<IInAppMessage?> {
+        val key = getPreparationKey(inAppMessage)
+        val existing = inFlightPreparations[key]
+        if (existing == null || (!existing.isForDisplay && !existing.hasStarted)) {
+            if (existing != null && inFlightPreparations.remove(key, existing)) {
+                brazelog { "Replacing queued prefetch of in-app message assets $key with a display preparation." }
+                existing.deferred.cancel()
+            }
+            return startPreparation(key, inAppMessage, isForDisplay = true)
+        }
+        brazelog { "Reusing in-flight preparation of in-app message assets $key." }
+        if (existing.inAppMessage === inAppMessage) {
+            return existing.deferred
+        }
+        // Another message object shares the assets. Its preparation fills the caches that this one
+        // is then prepared from.
+        return BrazeCoroutineScope.async {
+            try {
+                existing.deferred.await()
+            } catch (e: Exception) {
+                // Preparing this message doesn't depend on the other one succeeding
+                ensureActive()
+            }
+            displayPermit.withPermit { prepareInAppMessage(inAppMessage) }
+        }
+    }
+
+    private fun startPreparation(
+        key: String,
+        inAppMessage: IInAppMessage,
+        isForDisplay: Boolean,
+    ): Deferred<IInAppMessage?> {
+        val preparation = Preparation(inAppMessage, isForDisplay)
+        val permits = if (isForDisplay) displayPermit else prefetchPermits
+        preparation.deferred =
+            BrazeCoroutineScope.async(start = CoroutineStart.LAZY) {
+                permits.withPermit {
+                    ensureActive()
+                    preparation.hasStarted = true
+                    prepareInAppMessage(inAppMessage)
+                }
+            }
+        val existing = inFlightPreparations.putIfAbsent(key, preparation)
+        if (existing != null && !isForDisplay) {
+            preparation.deferred.cancel()
+            return existing.deferred
+        }
+        if (existing != null) {
+            // Lost a race with another caller. Run unshared rather than wait on work that may be a prefetch.
+            brazelog { "In-app message assets $key are already being prepared. Preparing without sharing." }
+        } else {
+            preparation.deferred.invokeOnCompletion { inFlightPreparations.remove(key, preparation) }
+        }
+        preparation.deferred.start()
+        return preparation.deferred
+    }
+
+    /**
+     * The asset url of [inAppMessage], or an identity of the message object when it has none.
+     */
+    private fun getPreparationKey(inAppMessage: IInAppMessage): String {
+        val assetUrl =
+            when (inAppMessage.messageType) {
+                MessageType.HTML_FULL -> (inAppMessage as? IInAppMessageZippedAssetHtml)?.assetsZipRemoteUrl
+                MessageType.HTML -> null
+                else -> (inAppMessage as? IInAppMessageWithImage)?.let { it.remoteImageUrl ?: it.localImageUrl }
+            }
+        return if (assetUrl.isNullOrBlank()) {
+            "message@${System.identityHashCode(inAppMessage)}"
+        } else {
+            assetUrl
+        }
     }
 
     private fun prepareInAppMessage(inAppMessageToPrepare: IInAppMessage): IInAppMessage? {
@@ -112,11 +295,15 @@ object BackgroundInAppMessagePreparer {
 
         val internalStorageCacheDirectory =
             getHtmlInAppMessageAssetCacheDirectory(applicationContext)
+        val zipAsset = synchronized(zipAssets) { zipAssets.getOrPut(assetsZipRemoteUrl) { ZipAsset() } }
         val localWebContentUrl =
-            getLocalHtmlUrlFromRemoteUrl(
-                internalStorageCacheDirectory,
-                assetsZipRemoteUrl,
-            )
+            synchronized(zipAsset) {
+                zipAsset.localDirectory?.takeIf { File(it).exists() }
+                    ?: getLocalHtmlUrlFromRemoteUrl(
+                        internalStorageCacheDirectory,
+                        assetsZipRemoteUrl,
+                    )?.also { zipAsset.localDirectory = it }
+            }
         return if (!localWebContentUrl.isNullOrBlank()) {
             brazelog { "Local url for html in-app message assets is $localWebContentUrl" }
             inAppMessageHtml.localAssetsDirectoryUrl = localWebContentUrl
@@ -6,7 +6,6 @@ import android.graphics.BlendMode
 import android.graphics.BlendModeColorFilter
 import android.graphics.Color
 import android.graphics.PorterDuff
-import android.graphics.Typeface
 import android.graphics.drawable.Drawable
 import android.graphics.drawable.GradientDrawable
 import android.graphics.drawable.LayerDrawable
@@ -21,6 +20,7 @@ import com.braze.enums.inappmessage.TextAlign
 import com.braze.support.BrazeLogger.Priority.E
 import com.braze.support.BrazeLogger.brazelog
 import com.braze.ui.inappmessage.BrazeInAppMessageManager
+import com.braze.ui.support.IconTypefaceCache
 
 /**
  * Utility methods for configuring in-app message view properties such as
@@ -54,8 +54,7 @@ object InAppMessageViewUtils {
     ) {
         if (icon != null) {
             try {
-                textView.typeface =
-                    Typeface.createFromAsset(context.assets, "fontawesome-webfont.ttf")
+                textView.typeface = IconTypefaceCache.getIconTypeface(context)
             } catch (e: Exception) {
                 brazelog(E, e) { "Caught exception setting icon typeface. Not rendering icon." }
                 return
@@ -8,7 +8,9 @@ import android.os.Message
 import android.util.AttributeSet
 import android.view.KeyEvent
 import android.view.View
+import android.view.ViewGroup
 import android.view.ViewGroup.MarginLayoutParams
+import android.view.ViewStub
 import android.webkit.ConsoleMessage
 import android.webkit.WebChromeClient
 import android.webkit.WebView
@@ -29,6 +31,8 @@ import com.braze.ui.inappmessage.listeners.IWebViewClientStateListener
 import com.braze.ui.inappmessage.utils.InAppMessageViewUtils.closeInAppMessageOnKeycodeBack
 import com.braze.ui.inappmessage.utils.InAppMessageViewUtils.isApiBelowBaklava
 import com.braze.ui.inappmessage.utils.InAppMessageWebViewClient
+import com.braze.ui.support.BrazeWebViewPool
+import com.braze.ui.support.BridgeJavascriptCache
 import com.braze.ui.support.MarginBaseline
 import com.braze.ui.support.applySafeAreaMargins
 import com.braze.ui.support.setFocusableInTouchModeAndRequestFocus
@@ -67,11 +71,15 @@ abstract class InAppMessageHtmlBaseView(
             if (configuredMessageWebView != null) {
                 return configuredMessageWebView
             }
-            val webView: WebView? = findViewById(webViewViewId)
-            if (webView == null) {
-                brazelog { "findViewById for $webViewViewId returned null. Returning null for WebView." }
-                return null
-            }
+            val webView: WebView =
+                when (val view: View? = findViewById(webViewViewId)) {
+                    is WebView -> view
+                    is ViewStub -> replaceStubWithPooledWebView(view)
+                    else -> {
+                        brazelog { "findViewById for $webViewViewId returned $view. Returning null for WebView." }
+                        return null
+                    }
+                }
             val webSettings = webView.settings
             setWebViewSettings(webSettings, context)
 
@@ -152,6 +160,7 @@ abstract class InAppMessageHtmlBaseView(
                     // play icon used as the default poster.
                     override fun getDefaultVideoPoster() = createBitmap(1, 1)
                 }
+            BridgeJavascriptCache.addDocumentStartScriptIfEnabled(webView)
             configuredMessageWebView = webView
             return configuredMessageWebView
         }
@@ -168,13 +177,31 @@ abstract class InAppMessageHtmlBaseView(
         // the WebView after we're done with it.
         isFinished = true
         configuredMessageWebView?.let {
-            it.loadUrl(FINISHED_WEBVIEW_URL)
-            it.onPause()
+            BridgeJavascriptCache.removeDocumentStartScript(it)
             it.removeAllViews()
+            // A pooled WebView loads the blank page in the pool, once it has been reset
+            if (it !is InAppMessageWebView || !BrazeWebViewPool.releaseInAppMessageWebView(it)) {
+                it.loadUrl(FINISHED_WEBVIEW_URL)
+                it.onPause()
+            }
             configuredMessageWebView = null
         }
     }
 
+    /**
+     * Replaces the [ViewStub] placeholder for the [WebView] in the default HTML layouts with an
+     * [InAppMessageWebView] from the [BrazeWebViewPool], keeping the id and layout params of the stub.
+     */
+    private fun replaceStubWithPooledWebView(stub: ViewStub): WebView {
+        val webView = BrazeWebViewPool.acquireInAppMessageWebView(context)
+        webView.id = stub.id
+        val parent = stub.parent as ViewGroup
+        val index = parent.indexOfChild(stub)
+        parent.removeViewInLayout(stub)
+        parent.addView(webView, index, stub.layoutParams)
+        return webView
+    }
+
     /**
      * Loads the WebView using an html string and local file resource url. This url should be a path
      * to a file on the local filesystem.
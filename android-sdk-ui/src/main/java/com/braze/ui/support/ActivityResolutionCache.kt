@@ -0,0 +1,155 @@
+package com.braze.ui.support
+
+import android.annotation.SuppressLint
+import android.content.BroadcastReceiver
+import android.content.ComponentName
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.content.pm.PackageManager
+import android.net.Uri
+import android.os.Build
+import androidx.core.content.ContextCompat
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.Priority.W
+import com.braze.support.BrazeLogger.brazelog
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Caches the [PackageManager] lookups made when opening deep links, push notifications and back
+ * stacks, so a tap doesn't wait on a binder call for answers that rarely change.
+ *
+ * Entries are filled lazily and the whole cache is cleared when a package is added, replaced, changed
+ * or removed, since any of these can change which activities resolve.
+ */
+internal object ActivityResolutionCache {
+    private val isPackageReceiverRegistered = AtomicBoolean(false)
+
+    @Volatile
+    private var launchIntent: CachedLaunchIntent? = null
+    private val registeredActivities = ConcurrentHashMap<String, Boolean>()
+    private val deepLinkPackages = ConcurrentHashMap<String, DeepLinkResolution>()
+
+    private val packageReceiver =
+        object : BroadcastReceiver() {
+            override fun onReceive(
+                context: Context,
+                intent: Intent,
+            ) {
+                brazelog(V) { "Clearing activity resolution cache after ${intent.action}" }
+                clear()
+            }
+        }
+
+    fun clear() {
+        launchIntent = null
+        registeredActivities.clear()
+        deepLinkPackages.clear()
+    }
+
+    /**
+     * Returns a copy of [PackageManager.getLaunchIntentForPackage] for the app's package.
+     */
+    fun getLaunchIntent(context: Context): Intent? {
+        registerPackageReceiver(context)
+        val cachedLaunchIntent =
+            launchIntent ?: CachedLaunchIntent(
+                context.packageManager.getLaunchIntentForPackage(context.packageName),
+            ).also { launchIntent = it }
+        return cachedLaunchIntent.intent?.let { Intent(it) }
+    }
+
+    /**
+     * Returns whether an activity with [className] is registered in the app's manifest.
+     */
+    fun isActivityRegistered(
+        context: Context,
+        className: String,
+    ): Boolean {
+        registerPackageReceiver(context)
+        return registeredActivities.getOrPut(className) {
+            try {
+                // If the activity is registered, then a non-null ActivityInfo is returned by the package manager.
+                // If unregistered, then an exception is thrown by the package manager.
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+                    context.packageManager.getActivityInfo(ComponentName(context, className), PackageManager.ComponentInfoFlags.of(0))
+                } else {
+                    context.packageManager.getActivityInfo(ComponentName(context, className), 0)
+                }
+                true
+            } catch (e: PackageManager.NameNotFoundException) {
+                brazelog(W, e) { "Could not find activity info for class with name: $className" }
+                false
+            }
+        }
+    }
+
+    /**
+     * Returns the package a view [intent] for [uri] should be pinned to, which is the app's own package
+     * when the app is one of several activities that can handle [uri]. Returns null otherwise.
+     *
+     * Results are keyed by the scheme, authority and path of [uri], the parts intent filters match on.
+     */
+    @SuppressLint("QueryPermissionsNeeded")
+    fun getDeepLinkPackage(
+        context: Context,
+        uri: Uri,
+        intent: Intent,
+    ): String? {
+        registerPackageReceiver(context)
+        val key = "${uri.scheme}://${uri.encodedAuthority.orEmpty()}${uri.encodedPath.orEmpty()}"
+        return deepLinkPackages
+            .getOrPut(key) {
+                val resolveInfos =
+                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+                        context.packageManager.queryIntentActivities(intent, PackageManager.ResolveInfoFlags.of(0))
+                    } else {
+                        context.packageManager.queryIntentActivities(intent, 0)
+                    }
+                val packageName =
+                    if (resolveInfos.size > 1) {
+                        resolveInfos.firstOrNull { it.activityInfo.packageName == context.packageName }?.activityInfo?.packageName
+                    } else {
+                        null
+                    }
+                DeepLinkResolution(packageName)
+            }.packageName
+    }
+
+    private fun registerPackageReceiver(context: Context) {
+        if (!isPackageReceiverRegistered.compareAndSet(false, true)) {
+            return
+        }
+        val intentFilter =
+            IntentFilter().apply {
+                addAction(Intent.ACTION_PACKAGE_ADDED)
+                addAction(Intent.ACTION_PACKAGE_REPLACED)
+                addAction(Intent.ACTION_PACKAGE_CHANGED)
+                addAction(Intent.ACTION_PACKAGE_REMOVED)
+                addDataScheme("package")
+            }
+        try {
+            ContextCompat.registerReceiver(
+                context.applicationContext,
+                packageReceiver,
+                intentFilter,
+                ContextCompat.RECEIVER_NOT_EXPORTED,
+            )
+        } catch (e: Exception) {
+            brazelog(E, e) {
+                "Failed to register package change receiver. Cached activity resolution will not be cleared on package changes."
+            }
+            isPackageReceiverRegistered.set(false)
+        }
+    }
+
+    private class CachedLaunchIntent(
+        val intent: Intent?,
+    )
+
+    private class DeepLinkResolution(
+        val packageName: String?,
+    )
+}
@@ -0,0 +1,137 @@
+package com.braze.ui.support
+
+import android.content.ComponentCallbacks2
+import android.content.Context
+import android.content.res.Configuration
+import android.graphics.Color
+import android.view.View
+import android.webkit.WebChromeClient
+import androidx.annotation.MainThread
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.ui.banners.BannerView
+import com.braze.ui.inappmessage.views.InAppMessageHtmlBaseView
+import com.braze.ui.inappmessage.views.InAppMessageWebView
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * A pool of pre-initialized WebViews for HTML in-app messages.
+ *
+ * Constructing a WebView is expensive, so the default HTML in-app message views borrow WebViews from
+ * this pool and return them once their message is finished. Pooled WebViews already have
+ * [setWebViewSettings] applied and the HTML bridge javascript loaded through [BridgeJavascriptCache].
+ *
+ * [BannerView]s are not pooled, since the banner view monitors they register can't be removed and
+ * would keep tracking a reused view for its previous placement.
+ *
+ * The pool is trimmed when the system signals memory pressure. All methods must be called on the
+ * main thread.
+ */
+object BrazeWebViewPool {
+    const val DEFAULT_MAX_IN_APP_MESSAGE_WEB_VIEWS = 1
+
+    private val isMemoryCallbackRegistered = AtomicBoolean(false)
+
+    private val inAppMessageWebViewPool =
+        WebViewPool(
+            DEFAULT_MAX_IN_APP_MESSAGE_WEB_VIEWS,
+            createWebView = { context ->
+                InAppMessageWebView(context, null).apply {
+                    setWebViewSettings(settings, context)
+                    setLayerType(View.LAYER_TYPE_HARDWARE, null)
+                    setBackgroundColor(Color.TRANSPARENT)
+                    BridgeJavascriptCache.prewarm(context)
+                }
+            },
+            resetWebView = { webView ->
+                // The interface is gone once the pool has loaded the blank page
+                webView.removeJavascriptInterface(InAppMessageHtmlBaseView.BRAZE_BRIDGE_PREFIX)
+                BridgeJavascriptCache.removeDocumentStartScript(webView)
+                webView.webChromeClient = WebChromeClient()
+                webView.settings.setSupportMultipleWindows(false)
+                webView.id = View.NO_ID
+            },
+        )
+
+    private val memoryCallback =
+        object : ComponentCallbacks2 {
+            override fun onTrimMemory(level: Int) {
+                if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND ||
+                    level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW ||
+                    level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL
+                ) {
+                    brazelog(V) { "Clearing WebView pool due to memory trim level $level" }
+                    clear()
+                }
+            }
+
+            override fun onConfigurationChanged(newConfig: Configuration) {
+                // Pooled WebViews pick up the configuration of the Activity they are acquired for
+            }
+
+            @Deprecated("Deprecated in Java")
+            override fun onLowMemory() {
+                clear()
+            }
+        }
+
+    /**
+     * The maximum number of idle HTML in-app message WebViews kept in the pool. Set to 0 to disable
+     * pooling. Defaults to [DEFAULT_MAX_IN_APP_MESSAGE_WEB_VIEWS].
+     */
+    @JvmStatic
+    var maxInAppMessageWebViews: Int
+        get() = inAppMessageWebViewPool.maxSize
+        @MainThread
+        set(value) {
+            inAppMessageWebViewPool.maxSize = value
+        }
+
+    /**
+     * Fills the pool up to its limit while the main thread is idle. Call this early, for example in
+     * your first Activity, so the first HTML in-app message doesn't have to wait for a WebView to be
+     * constructed.
+     */
+    @JvmStatic
+    @MainThread
+    fun prewarm(context: Context) {
+        registerMemoryCallback(context)
+        inAppMessageWebViewPool.prewarm(context)
+    }
+
+    /**
+     * Returns a pooled or new [InAppMessageWebView] to be shown in [context].
+     */
+    @JvmStatic
+    @MainThread
+    fun acquireInAppMessageWebView(context: Context): InAppMessageWebView {
+        registerMemoryCallback(context)
+        return inAppMessageWebViewPool.acquire(context)
+    }
+
+    /**
+     * Returns [webView] to the pool once its in-app message is finished. The pool loads a blank page
+     * into it and only reuses it once that page has replaced the message.
+     *
+     * @return true if the pool took [webView] over. WebViews not acquired from
+     * [acquireInAppMessageWebView] are left untouched and return false.
+     */
+    @JvmStatic
+    @MainThread
+    fun releaseInAppMessageWebView(webView: InAppMessageWebView): Boolean = inAppMessageWebViewPool.release(webView)
+
+    /**
+     * Destroys every idle pooled WebView.
+     */
+    @JvmStatic
+    @MainThread
+    fun clear() {
+        inAppMessageWebViewPool.clear()
+    }
+
+    private fun registerMemoryCallback(context: Context) {
+        if (isMemoryCallbackRegistered.compareAndSet(false, true)) {
+            context.applicationContext.registerComponentCallbacks(memoryCallback)
+        }
+    }
+}
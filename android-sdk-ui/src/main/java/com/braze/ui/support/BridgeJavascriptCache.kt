@@ -0,0 +1,126 @@
+package com.braze.ui.support
+
+import android.content.Context
+import android.webkit.WebView
+import androidx.webkit.ScriptHandler
+import androidx.webkit.WebViewCompat
+import androidx.webkit.WebViewFeature
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.support.getAssetFileStringContents
+import com.braze.ui.BrazeWebViewClient
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import java.util.WeakHashMap
+
+/**
+ * Process-wide cache of the Braze HTML bridge JavaScript ([BrazeWebViewClient.BRIDGE_JS_FILE]).
+ *
+ * The asset is read once, on first use or when [prewarm] is called, instead of on every page load
+ * of an HTML in-app message or banner.
+ */
+object BridgeJavascriptCache {
+    @Volatile
+    private var bridgeJavascript: String? = null
+
+    /** WebViews that already have the bridge registered as a document start script. */
+    private val documentStartScripts = WeakHashMap<WebView, ScriptHandler>()
+
+    /**
+     * When true, the bridge is registered as a document start script on Braze WebViews that support
+     * [WebViewFeature.DOCUMENT_START_SCRIPT], so it is available before the page's own scripts run
+     * and no longer injected in [android.webkit.WebViewClient.onPageFinished].
+     *
+     * Note that the `ab.BridgeReady` event is then dispatched before the page's scripts have run, so
+     * HTML content must check for `window.brazeBridge` instead of only listening for that event.
+     * Defaults to false.
+     */
+    @JvmStatic
+    @Volatile
+    var isDocumentStartInjectionEnabled = false
+
+    /**
+     * Returns the bridge JavaScript, reading it from the assets if it isn't cached yet.
+     *
+     * @throws Exception if the asset could not be read.
+     */
+    @JvmStatic
+    fun getBridgeJavascript(context: Context): String {
+        bridgeJavascript?.let { return it }
+        synchronized(this) {
+            return bridgeJavascript
+                ?: context.assets.getAssetFileStringContents(BrazeWebViewClient.BRIDGE_JS_FILE).also {
+                    bridgeJavascript = it
+                }
+        }
+    }
+
+    /**
+     * Reads the bridge JavaScript into the cache on a background thread so that the first HTML
+     * in-app message or banner doesn't pay for the asset read.
+     */
+    @JvmStatic
+    fun prewarm(context: Context) {
+        if (bridgeJavascript != null) {
+            return
+        }
+        val applicationContext = context.applicationContext
+        BrazeCoroutineScope.launch(Dispatchers.IO) {
+            try {
+                getBridgeJavascript(applicationContext)
+                brazelog(V) { "Prewarmed the HTML bridge javascript." }
+            } catch (e: Exception) {
+                brazelog(E, e) { "Failed to prewarm the HTML bridge javascript." }
+            }
+        }
+    }
+
+    /**
+     * Registers the bridge as a document start script on [webView] if [isDocumentStartInjectionEnabled]
+     * is true and the WebView supports it. Must be called on the main thread, before content is loaded.
+     */
+    @JvmStatic
+    fun addDocumentStartScriptIfEnabled(webView: WebView) {
+        if (!isDocumentStartInjectionEnabled ||
+            isInjectedAtDocumentStart(webView) ||
+            !WebViewFeature.isFeatureSupported(WebViewFeature.DOCUMENT_START_SCRIPT)
+        ) {
+            return
+        }
+        try {
+            val scriptHandler =
+                WebViewCompat.addDocumentStartJavaScript(
+                    webView,
+                    getBridgeJavascript(webView.context),
+                    setOf("*"),
+                )
+            synchronized(documentStartScripts) {
+                documentStartScripts[webView] = scriptHandler
+            }
+        } catch (e: Exception) {
+            brazelog(E, e) { "Failed to add the HTML bridge javascript as a document start script." }
+        }
+    }
+
+    /**
+     * Removes the document start script previously added by [addDocumentStartScriptIfEnabled], if any.
+     * Must be called on the main thread.
+     */
+    @JvmStatic
+    fun removeDocumentStartScript(webView: WebView) {
+        synchronized(documentStartScripts) {
+            documentStartScripts.remove(webView)
+        }?.remove()
+    }
+
+    /**
+     * Whether [webView] already gets the bridge injected at document start.
+     */
+    @JvmStatic
+    fun isInjectedAtDocumentStart(webView: WebView): Boolean =
+        synchronized(documentStartScripts) {
+            documentStartScripts.containsKey(webView)
+        }
+}
@@ -0,0 +1,57 @@
+package com.braze.ui.support
+
+import android.content.Context
+import android.graphics.Typeface
+import com.braze.coroutine.BrazeCoroutineScope
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+
+/**
+ * Process-wide cache of the FontAwesome [Typeface] ([ICON_FONT_FILE]) used for in-app message icons.
+ *
+ * The font is parsed once, on first use or when [prewarm] is called, instead of every time an in-app
+ * message with an icon is bound.
+ */
+internal object IconTypefaceCache {
+    private const val ICON_FONT_FILE = "fontawesome-webfont.ttf"
+
+    @Volatile
+    private var iconTypeface: Typeface? = null
+
+    /**
+     * Returns the icon typeface, loading it from the assets if it isn't cached yet.
+     *
+     * @throws Exception if the font could not be loaded.
+     */
+    fun getIconTypeface(context: Context): Typeface {
+        iconTypeface?.let { return it }
+        synchronized(this) {
+            return iconTypeface
+                ?: Typeface.createFromAsset(context.applicationContext.assets, ICON_FONT_FILE).also {
+                    iconTypeface = it
+                }
+        }
+    }
+
+    /**
+     * Loads the icon typeface into the cache on a background thread so that the first in-app message
+     * with an icon doesn't pay for parsing the font.
+     */
+    fun prewarm(context: Context) {
+        if (iconTypeface != null) {
+            return
+        }
+        val applicationContext = context.applicationContext
+        BrazeCoroutineScope.launch(Dispatchers.IO) {
+            try {
+                getIconTypeface(applicationContext)
+                brazelog(V) { "Prewarmed the in-app message icon typeface." }
+            } catch (e: Exception) {
+                brazelog(E, e) { "Failed to prewarm the in-app message icon typeface." }
+            }
+        }
+    }
+}
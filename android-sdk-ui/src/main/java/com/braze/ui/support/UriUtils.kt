@@ -2,18 +2,14 @@
 
 package com.braze.ui.support
 
-import android.content.ComponentName
 import android.content.Context
 import android.content.Intent
-import android.content.pm.PackageManager
 import android.net.Uri
-import android.os.Build
 import android.os.Bundle
 import androidx.core.net.toUri
 import com.braze.IBrazeDeeplinkHandler
 import com.braze.support.BrazeLogger.Priority.E
 import com.braze.support.BrazeLogger.Priority.V
-import com.braze.support.BrazeLogger.Priority.W
 import com.braze.support.BrazeLogger.brazelog
 import com.braze.support.BrazeLogger.getBrazeLogTag
 import com.braze.ui.BrazeDeeplinkHandler
@@ -60,7 +56,7 @@ fun getMainActivityIntent(
     context: Context,
     extras: Bundle? = null,
 ): Intent? {
-    val startActivityIntent = context.packageManager.getLaunchIntentForPackage(context.packageName)
+    val startActivityIntent = ActivityResolutionCache.getLaunchIntent(context)
     startActivityIntent?.flags =
         BrazeDeeplinkHandler
             .getInstance()
@@ -72,6 +68,8 @@ fun getMainActivityIntent(
 }
 
 /**
+ * The result is cached until a package changes, see [ActivityResolutionCache].
+ *
  * @param context The context used to create the checked component identifier.
  * @param className The class name for a registered activity with the given context
  * @return true if the class name matches a registered activity in the Android Manifest.
@@ -79,17 +77,4 @@ fun getMainActivityIntent(
 fun isActivityRegisteredInManifest(
     context: Context,
     className: String,
-): Boolean =
-    try {
-        // If the activity is registered, then a non-null ActivityInfo is returned by the package manager.
-        // If unregistered, then an exception is thrown by the package manager.
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-            context.packageManager.getActivityInfo(ComponentName(context, className), PackageManager.ComponentInfoFlags.of(0))
-        } else {
-            context.packageManager.getActivityInfo(ComponentName(context, className), 0)
-        }
-        true
-    } catch (e: PackageManager.NameNotFoundException) {
-        brazelog(TAG, W, e) { "Could not find activity info for class with name: $className" }
-        false
-    }
+): Boolean = ActivityResolutionCache.isActivityRegistered(context, className)
@@ -0,0 +1,194 @@
+package com.braze.ui.support
+
+import android.content.Context
+import android.content.MutableContextWrapper
+import android.os.Handler
+import android.os.Looper
+import android.view.ViewGroup
+import android.webkit.WebView
+import android.webkit.WebViewClient
+import androidx.annotation.MainThread
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+
+/**
+ * A bounded pool of idle [WebView]s of type [T].
+ *
+ * Every [WebView] created by the pool is backed by a [MutableContextWrapper], so it can be
+ * handed to an Activity in [acquire] and pointed back at the application [Context] in [release]
+ * without leaking the Activity. [WebView]s that were not created by the pool are never pooled.
+ *
+ * A released [WebView] only becomes idle once a blank page has replaced the document it showed, so
+ * that document's timers and javascript interfaces don't live on in the pool.
+ *
+ * All methods must be called on the main thread.
+ *
+ * @param maxSize The maximum number of idle [WebView]s kept by the pool.
+ * @param createWebView Creates and configures a new [WebView] for the given [Context].
+ * @param resetWebView Clears any per-use state of a released [WebView] before the blank page is loaded.
+ */
+class WebViewPool<T : WebView>(
+    maxSize: Int,
+    private val createWebView: (Context) -> T,
+    private val resetWebView: (T) -> Unit,
+) {
+    private val idleWebViews = ArrayDeque<T>()
+
+    /** Released [WebView]s waiting for the blank page to finish loading. */
+    private val releasingWebViews = mutableSetOf<T>()
+    private val mainHandler = Handler(Looper.getMainLooper())
+    private var pendingPrewarmCount = 0
+
+    /**
+     * The maximum number of idle [WebView]s kept by the pool. Lowering it destroys the
+     * [WebView]s above the new limit.
+     */
+    var maxSize: Int = maxSize
+        @MainThread
+        set(value) {
+            field = maxOf(0, value)
+            trimToSize(field)
+        }
+
+    /**
+     * The number of idle [WebView]s currently in the pool.
+     */
+    val size: Int
+        get() = idleWebViews.size
+
+    /**
+     * Returns an idle [WebView] from the pool, or a new one if the pool is empty.
+     *
+     * @param context The [Context] the [WebView] will be shown in, usually an Activity.
+     */
+    @MainThread
+    fun acquire(context: Context): T {
+        val pooledWebView = idleWebViews.removeFirstOrNull()
+        if (pooledWebView == null) {
+            brazelog(V) { "WebView pool is empty. Creating a new WebView." }
+            return createWebView(MutableContextWrapper(context))
+        }
+        (pooledWebView.context as MutableContextWrapper).baseContext = context
+        pooledWebView.onResume()
+        brazelog(V) { "Acquired a pooled WebView. $size WebViews left in the pool." }
+        return pooledWebView
+    }
+
+    /**
+     * Returns [webView] to the pool. The [WebView] is removed from its parent, reset and then loads a
+     * blank page. It is pooled once that page has loaded, or destroyed if the pool is full by then or
+     * the page doesn't load within [BLANK_PAGE_TIMEOUT_MS].
+     *
+     * @return true if [webView] was created by this pool, which then owns it. The caller must not use
+     * [webView] afterwards.
+     */
+    @MainThread
+    fun release(webView: T): Boolean {
+        val contextWrapper = webView.context as? MutableContextWrapper ?: return false
+        if (idleWebViews.contains(webView) || releasingWebViews.contains(webView)) {
+            return true
+        }
+        (webView.parent as? ViewGroup)?.removeView(webView)
+        contextWrapper.baseContext = contextWrapper.applicationContext
+        try {
+            resetWebView(webView)
+            // Stop any load of the released document first, so it can't cancel the blank page
+            webView.stopLoading()
+            webView.webViewClient =
+                object : WebViewClient() {
+                    override fun onPageFinished(
+                        view: WebView,
+                        url: String?,
+                    ) {
+                        if (url == BLANK_PAGE_URL) {
+                            onBlankPageLoaded(webView)
+                        }
+                    }
+                }
+            releasingWebViews.add(webView)
+            webView.loadUrl(BLANK_PAGE_URL)
+        } catch (e: Exception) {
+            brazelog(E, e) { "Failed to reset WebView. Not returning it to the pool." }
+            releasingWebViews.remove(webView)
+            webView.destroy()
+            return true
+        }
+        // Not View.postDelayed, which waits for the detached WebView to be attached again
+        mainHandler.postDelayed({
+            if (releasingWebViews.remove(webView)) {
+                brazelog(V) { "Released WebView did not load the blank page in time. Destroying it." }
+                webView.destroy()
+            }
+        }, BLANK_PAGE_TIMEOUT_MS)
+        return true
+    }
+
+    private fun onBlankPageLoaded(webView: T) {
+        if (!releasingWebViews.remove(webView)) {
+            return
+        }
+        webView.webViewClient = WebViewClient()
+        webView.clearHistory()
+        webView.onPause()
+        if (idleWebViews.size >= maxSize) {
+            webView.destroy()
+            return
+        }
+        idleWebViews.addLast(webView)
+        brazelog(V) { "Returned a WebView to the pool. $size WebViews in the pool." }
+    }
+
+    /**
+     * Creates WebViews until the pool holds [count] idle WebViews, capped at [maxSize]. Each
+     * WebView is created when the main thread is idle, so prewarming doesn't compete with
+     * rendering the current screen.
+     */
+    @MainThread
+    fun prewarm(
+        context: Context,
+        count: Int = maxSize,
+    ) {
+        val applicationContext = context.applicationContext
+        val missingCount = minOf(count, maxSize) - idleWebViews.size - pendingPrewarmCount
+        if (missingCount <= 0) {
+            return
+        }
+        pendingPrewarmCount += missingCount
+        Looper.myQueue().addIdleHandler {
+            pendingPrewarmCount--
+            if (idleWebViews.size < maxSize) {
+                try {
+                    idleWebViews.addLast(createWebView(MutableContextWrapper(applicationContext)).also { it.onPause() })
+                } catch (e: Exception) {
+                    brazelog(E, e) { "Failed to prewarm WebView." }
+                    pendingPrewarmCount = 0
+                    return@addIdleHandler false
+                }
+            }
+            // Keep the handler registered until every requested WebView was created
+            pendingPrewarmCount > 0
+        }
+    }
+
+    /**
+     * Destroys every idle [WebView] in the pool, and every released [WebView] still loading the blank page.
+     */
+    @MainThread
+    fun clear() {
+        releasingWebViews.forEach { it.destroy() }
+        releasingWebViews.clear()
+        trimToSize(0)
+    }
+
+    private fun trimToSize(newSize: Int) {
+        while (idleWebViews.size > newSize) {
+            idleWebViews.removeLast().destroy()
+        }
+    }
+
+    private companion object {
+        private const val BLANK_PAGE_URL = "about:blank"
+        private const val BLANK_PAGE_TIMEOUT_MS = 2000L
+    }
+}
@@ -17,6 +17,7 @@ import com.braze.ui.inappmessage.listeners.DefaultHtmlInAppMessageActionListener
 import com.braze.ui.inappmessage.listeners.DefaultInAppMessageManagerListener
 import com.braze.unity.configuration.UnityConfigurationProvider
 import com.braze.unity.enums.UnityInAppMessageManagerAction
+import com.braze.unity.utils.ContentCardsUnitySerializer
 import com.braze.unity.utils.MessagingUtils
 import com.braze.unity.utils.MessagingUtils.BrazeInternalComponentMethod
 import org.json.JSONArray
@@ -143,6 +144,20 @@ class BrazeUnityActivityWrapper {
         BrazeInAppMessageManager.getInstance().requestDisplayInAppMessage()
     }
 
+    /**
+     * Sends the last received Content Cards to Unity as a full snapshot. Use when Content Cards are
+     * delivered as deltas and the Unity side needs to rebuild its feed.
+     *
+     * @param context Context used to read the Unity configuration.
+     */
+    fun requestContentCardsSnapshot(context: Context) {
+        val config = getUnityConfigurationProvider(context.applicationContext)
+        ContentCardsUnitySerializer.requestFullSnapshot(
+            config.contentCardsUpdatedListenerGameObjectName,
+            config.contentCardsUpdatedListenerCallbackMethodName,
+        )
+    }
+
     /**
      * Launches the [ContentCardsActivity] from the given [Activity].
      *
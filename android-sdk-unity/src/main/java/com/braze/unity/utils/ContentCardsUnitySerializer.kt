@@ -0,0 +1,179 @@
+package com.braze.unity.utils
+
+import com.braze.events.ContentCardsUpdatedEvent
+import com.braze.models.cards.Card
+import com.braze.support.BrazeLogger.Priority.E
+import com.braze.support.BrazeLogger.Priority.V
+import com.braze.support.BrazeLogger.brazelog
+import com.braze.support.BrazeLogger.getBrazeLogTag
+import com.unity3d.player.UnityPlayer
+import org.json.JSONObject
+import java.util.concurrent.Executors
+
+/**
+ * Serializes Content Cards updates for Unity on a single background thread, reusing one buffer for
+ * every payload.
+ *
+ * By default every update is sent as a full snapshot in the `mContentCards` format. When
+ * [isDeltaDeliveryEnabled] is set, only the first update and updates after [requestFullSnapshot] are
+ * full snapshots. Every other update is a delta that carries the JSON of added and changed cards and
+ * the ids of removed cards. A card counts as changed when the hash of its JSON differs from the last
+ * one sent to Unity. Deltas have the format:
+ *
+ * ```
+ * {
+ *   "mIsDelta": true,
+ *   "mFromOfflineStorage": false,
+ *   "mCardIds": ["id1", "id2"],   // every current card id, in feed order
+ *   "mAdded": [{...}],
+ *   "mChanged": [{...}],
+ *   "mRemoved": ["id3"]
+ * }
+ * ```
+ */
+object ContentCardsUnitySerializer {
+    private val TAG = getBrazeLogTag(ContentCardsUnitySerializer::class.java)
+    private const val INITIAL_BUFFER_CAPACITY = 16 * 1024
+    private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+    private const val FNV_PRIME = 0x100000001b3L
+
+    /**
+     * Whether Content Cards updates are sent to Unity as deltas. The Unity binding must apply deltas to
+     * its copy of the feed. Defaults to false.
+     */
+    @JvmStatic
+    @Volatile
+    var isDeltaDeliveryEnabled = false
+
+    private val executor = Executors.newSingleThreadExecutor()
+
+    // Only accessed on the executor thread
+    private val buffer = StringBuilder(INITIAL_BUFFER_CAPACITY)
+    private val sentCardHashes = HashMap<String, Long>()
+    private var isFullSnapshotRequested = true
+    private var lastEvent: ContentCardsUpdatedEvent? = null
+
+    /**
+     * Makes the next update a full snapshot. If [unityGameObjectName] and [unityCallbackFunctionName]
+     * are set, the last received cards are sent as a full snapshot right away.
+     */
+    @JvmStatic
+    fun requestFullSnapshot(
+        unityGameObjectName: String? = null,
+        unityCallbackFunctionName: String? = null,
+    ) {
+        executor.execute {
+            isFullSnapshotRequested = true
+            val event = lastEvent
+            if (event != null && !unityGameObjectName.isNullOrBlank() && !unityCallbackFunctionName.isNullOrBlank()) {
+                serializeAndSend(unityGameObjectName, unityCallbackFunctionName, event)
+            }
+        }
+    }
+
+    /**
+     * Serializes [event] in the background and sends it to the given Unity GameObject.
+     */
+    internal fun send(
+        unityGameObjectName: String,
+        unityCallbackFunctionName: String,
+        event: ContentCardsUpdatedEvent,
+    ) {
+        executor.execute {
+            lastEvent = event
+            serializeAndSend(unityGameObjectName, unityCallbackFunctionName, event)
+        }
+    }
+
+    private fun serializeAndSend(
+        unityGameObjectName: String,
+        unityCallbackFunctionName: String,
+        event: ContentCardsUpdatedEvent,
+    ) {
+        val payload =
+            try {
+                serialize(event)
+            } catch (e: Exception) {
+                brazelog(TAG, E, e) { "Failed to serialize Content Cards update for Unity." }
+                return
+            }
+        brazelog(TAG) { "Sending a Content Cards update message to $unityGameObjectName:$unityCallbackFunctionName." }
+        UnityPlayer.UnitySendMessage(unityGameObjectName, unityCallbackFunctionName, payload)
+    }
+
+    private fun serialize(event: ContentCardsUpdatedEvent): String {
+        val cards = event.allCards
+        val cardJsons = cards.map { it.forJsonPut().toString() }
+        val isFullSnapshot = !isDeltaDeliveryEnabled || isFullSnapshotRequested
+        buffer.setLength(0)
+        if (isFullSnapshot) {
+            buffer.append("{\"mIsDelta\":false,\"mContentCards\":")
+            appendJsonArray(cardJsons)
+        } else {
+            appendDelta(cards, cardJsons)
+        }
+        buffer
+            .append(",\"mFromOfflineStorage\":")
+            .append(event.isFromOfflineStorage)
+            .append('}')
+
+        sentCardHashes.clear()
+        cards.forEachIndexed { index, card -> sentCardHashes[card.id] = getHash(cardJsons[index]) }
+        isFullSnapshotRequested = false
+        return buffer.toString()
+    }
+
+    private fun appendDelta(
+        cards: List<Card>,
+        cardJsons: List<String>,
+    ) {
+        val added = mutableListOf<String>()
+        val changed = mutableListOf<String>()
+        cards.forEachIndexed { index, card ->
+            val sentHash = sentCardHashes[card.id]
+            when {
+                sentHash == null -> added.add(cardJsons[index])
+                sentHash != getHash(cardJsons[index]) -> changed.add(cardJsons[index])
+            }
+        }
+        val currentIds = cards.mapTo(HashSet()) { it.id }
+        val removedIds = sentCardHashes.keys.filter { it !in currentIds }
+        brazelog(TAG, V) {
+            "Content Cards delta for Unity: ${added.size} added, ${changed.size} changed, ${removedIds.size} removed."
+        }
+
+        buffer.append("{\"mIsDelta\":true,\"mCardIds\":")
+        appendJsonArray(cards.map { JSONObject.quote(it.id) })
+        buffer.append(",\"mAdded\":")
+        appendJsonArray(added)
+        buffer.append(",\"mChanged\":")
+        appendJsonArray(changed)
+        buffer.append(",\"mRemoved\":")
+        appendJsonArray(removedIds.map { JSONObject.quote(it) })
+    }
+
+    /**
+     * Appends already serialized JSON values as a JSON array.
+     */
+    private fun appendJsonArray(values: List<String>) {
+        buffer.append('[')
+        values.forEachIndexed { index, value ->
+            if (index > 0) {
+                buffer.append(',')
+            }
+            buffer.append(value)
+        }
+        buffer.append(']')
+    }
+
+    /**
+     * 64-bit FNV-1a hash of [json].
+     */
+    private fun getHash(json: String): Long {
+        var hash = FNV_OFFSET_BASIS
+        for (char in json) {
+            hash = (hash xor char.code.toLong()) * FNV_PRIME
+        }
+        return hash
+    }
+}
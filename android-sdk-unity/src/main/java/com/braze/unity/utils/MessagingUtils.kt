@@ -102,12 +102,13 @@ object MessagingUtils {
     }
 
     /**
-     * Sends a Content Cards updated event payload to the specified Unity GameObject.
+     * Sends a Content Cards updated event payload to the specified Unity GameObject. The payload is
+     * serialized and sent in the background by [ContentCardsUnitySerializer].
      *
      * @param unityGameObjectName Target Unity GameObject name, or null to skip.
      * @param unityCallbackFunctionName Callback method name on the GameObject, or null to skip.
      * @param contentCardsUpdatedEvent The Content Cards updated event to serialize and send.
-     * @return True if the message was sent, false if either parameter was blank.
+     * @return True if the message was queued, false if either parameter was blank.
      */
     fun sendContentCardsUpdatedEventToUnity(
         unityGameObjectName: String?,
@@ -128,12 +129,7 @@ object MessagingUtils {
             }
             return false
         }
-        val json =
-            JSONObject()
-                .put("mContentCards", contentCardsUpdatedEvent.allCards.constructJsonArray())
-                .put("mFromOfflineStorage", contentCardsUpdatedEvent.isFromOfflineStorage)
-        brazelog(TAG) { "Sending a Content Cards update message to $unityGameObjectName:$unityCallbackFunctionName." }
-        UnityPlayer.UnitySendMessage(unityGameObjectName, unityCallbackFunctionName, json.toString())
+        ContentCardsUnitySerializer.send(unityGameObjectName, unityCallbackFunctionName, contentCardsUpdatedEvent)
         return true
     }
 